@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+/**
+ * Measures the retained heap of a Key, a NumberPad and a NumberPad that renders on a
+ * canvas (with CSS applied) by creating many of them and comparing the used heap after
+ * a full GC, so state that is shared between instances doesn't count. Fails with exit
+ * code 1 if one of them exceeds its budget, e.g. gradlew footprint -Pfootprint.padBudget=140000
+ * The budgets are measured on a 64 bit JVM with compressed oops.
+ * Arguments: [instances] [key budget] [pad budget] [canvas pad budget] (bytes)
+ */
+public class FootprintHarness {
+    public  static final long         KEY_BUDGET        = 10_000;
+    public  static final long         PAD_BUDGET        = 160_000;
+    public  static final long         CANVAS_PAD_BUDGET = 64_000;
+    private static final MemoryMXBean MEMORY            = ManagementFactory.getMemoryMXBean();
+
+
+    public static void main(final String[] args) throws Exception {
+        final int  instances       = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final long keyBudget       = args.length > 1 ? Long.parseLong(args[1]) : KEY_BUDGET;
+        final long padBudget       = args.length > 2 ? Long.parseLong(args[2]) : PAD_BUDGET;
+        final long canvasPadBudget = args.length > 3 ? Long.parseLong(args[3]) : CANVAS_PAD_BUDGET;
+
+        FxTest.start();
+        // warm up, the first instances initialize the shared state (fonts, stylesheets, caches)
+        retainedBytes(10, FootprintHarness::key);
+        retainedBytes(10, NumberPad::new);
+        retainedBytes(10, FootprintHarness::canvasPad);
+
+        final long keyBytes       = retainedBytes(instances * KeyLayout.NUMBER_PAD.getKeyCount(), FootprintHarness::key);
+        final long padBytes       = retainedBytes(instances, NumberPad::new);
+        final long canvasPadBytes = retainedBytes(instances, FootprintHarness::canvasPad);
+        Platform.exit();
+
+        final boolean exceeded = keyBytes > keyBudget || padBytes > padBudget || canvasPadBytes > canvasPadBudget;
+        System.out.printf(Locale.US, "Key                 : %,9d bytes (budget %,9d)%n", keyBytes, keyBudget);
+        System.out.printf(Locale.US, "NumberPad           : %,9d bytes (budget %,9d)%n", padBytes, padBudget);
+        System.out.printf(Locale.US, "NumberPad on canvas : %,9d bytes (budget %,9d)%n", canvasPadBytes, canvasPadBudget);
+        if (exceeded) {
+            System.err.println("Footprint budget exceeded");
+            System.exit(1);
+        }
+    }
+
+    private static Key<String> key() { return new Key<>("0"); }
+
+    private static NumberPad canvasPad() { return new NumberPad(5, 5, RenderMode.CANVAS); }
+
+    // Retained bytes per instance, all instances are part of one scene and styled
+    private static long retainedBytes(final int count, final Supplier<? extends Parent> factory) throws Exception {
+        final List<Object> instances = new ArrayList<>(count);
+        final long         before    = usedHeap();
+        onFxThread(() -> {
+            final Group root = new Group();
+            for (int i = 0 ; i < count ; i++) { root.getChildren().add(factory.get()); }
+            new Scene(root);
+            root.applyCss();
+            instances.add(root);
+        });
+        final long after = usedHeap();
+        Reference.reachabilityFence(instances);
+        return (after - before) / count;
+    }
+
+    private static void onFxThread(final Runnable runnable) throws Exception {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                runnable.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.get(60, TimeUnit.SECONDS);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0 ; i < 3 ; i++) { System.gc(); }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A barcode scan (13 digits) fed into a pad from a background thread, either with
+ * one Platform.runLater() per key or with NumberPad.injectKeys(). Measures the cost
+ * on the scanner thread of a scan into an idle pad, run with -prof gc to see the
+ * allocations per scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionBenchmark {
+    private static final String     SCAN = "4006381333931";
+    @Param({ "runLater", "inject" })
+    private              String     mode;
+    private              NumberPad  numberPad;
+    private              Key[]      scanKeys;
+    private              AtomicLong pressed;
+    private              long       expected;
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        numberPad = new NumberPad();
+        pressed   = new AtomicLong();
+        numberPad.subscribe(KeyEventType.PRESSED, evt -> pressed.incrementAndGet());
+        scanKeys  = new Key[SCAN.length()];
+        for (int i = 0 ; i < SCAN.length() ; i++) {
+            final KeyCode keyCode = KeyCode.getKeyCode(String.valueOf(SCAN.charAt(i)));
+            scanKeys[i] = KeyboardBridge.createIndex(numberPad.getKeys()).get(keyCode);
+        }
+    }
+
+    // every scan starts with an idle FX thread (not measured)
+    @TearDown(Level.Invocation) public void awaitDispatch() throws InterruptedException {
+        while (pressed.get() < expected) { Thread.sleep(1); }
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(latch::countDown);
+        latch.await();
+    }
+
+
+    @Benchmark public void scan() {
+        if ("inject".equals(mode)) {
+            numberPad.injectKeys(SCAN);
+        } else {
+            for (Key key : scanKeys) {
+                Platform.runLater(() -> {
+                    numberPad.pressKey(key, true);
+                    numberPad.pressKey(key, false);
+                });
+            }
+        }
+        expected += SCAN.length();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sustained input: every invocation is one key press of a typical entry sequence
+ * (digits, decimal separator, cursor moves, corrections and clear).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBufferBenchmark {
+    private static final KeyCode[]   SEQUENCE = { KeyCode.NUMPAD1, KeyCode.NUMPAD2, KeyCode.NUMPAD3, KeyCode.SEPARATOR, KeyCode.NUMPAD4,
+                                                  KeyCode.NUMPAD5, KeyCode.LEFT, KeyCode.LEFT, KeyCode.BACK_SPACE, KeyCode.NUMPAD9,
+                                                  KeyCode.RIGHT, KeyCode.MINUS, KeyCode.DELETE, KeyCode.UP, KeyCode.NUMPAD7,
+                                                  KeyCode.DOWN, KeyCode.NUMPAD0, KeyCode.CLEAR };
+    private              KeyEvent[]  events;
+    private              InputBuffer inputBuffer;
+    private              int         index;
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        events = new KeyEvent[SEQUENCE.length];
+        for (int i = 0 ; i < SEQUENCE.length ; i++) { events[i] = new KeyEvent(new Key<>(SEQUENCE[i].getName(), SEQUENCE[i]), KeyEventType.PRESSED); }
+        inputBuffer = new InputBuffer();
+    }
+
+
+    @Benchmark public int keystroke() {
+        inputBuffer.onKeyEvent(events[index]);
+        index = index == events.length - 1 ? 0 : index + 1;
+        return inputBuffer.getCursor();
+    }
+
+    @Benchmark public double keystrokeAndGetDouble() {
+        inputBuffer.onKeyEvent(events[index]);
+        index = index == events.length - 1 ? 0 : index + 1;
+        return inputBuffer.getDouble();
+    }
+
+    @Benchmark public BigDecimal keystrokeAndGetBigDecimal() {
+        inputBuffer.onKeyEvent(events[index]);
+        index = index == events.length - 1 ? 0 : index + 1;
+        return inputBuffer.getBigDecimal();
+    }
+}
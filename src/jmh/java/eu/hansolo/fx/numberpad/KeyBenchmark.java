@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Construction, dispatch and resizing of a single key. The resize benchmarks run the
+ * layout pass like one pulse would do and count the layout passes and font fittings
+ * (adjustTextSize) of the key, both should be 1 per resize.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyBenchmark {
+    private CountingKey key;
+    private CountingKey longTextKey;
+    private double      size;
+
+
+    @State(Scope.Thread)
+    public static class Dispatch {
+        @Param({ "1", "10", "100" })
+        private int          observerCount;
+        private Key<KeyCode> key;
+
+        @Setup(Level.Trial) public void setup(final Blackhole blackhole) {
+            FxTest.start();
+            key = new Key<>("7", KeyCode.NUMPAD7);
+            for (int i = 0 ; i < observerCount ; i++) {
+                // a new observer instance per registration, otherwise Key ignores the duplicate
+                KeyEventObserver observer = evt -> blackhole.consume(evt);
+                key.setOnKeyPressed(observer);
+            }
+        }
+    }
+
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long resizes;
+        public long layoutPasses;
+        public long textAdjustments;
+
+        @Setup(Level.Iteration) public void reset() {
+            resizes         = 0;
+            layoutPasses    = 0;
+            textAdjustments = 0;
+        }
+    }
+
+
+    static class CountingKey extends Key<KeyCode> {
+        private Counters counters;
+
+        CountingKey(final String text, final KeyCode keyCode) { super(text, keyCode); }
+
+        @Override protected void layoutChildren() {
+            if (null != counters) { counters.layoutPasses++; }
+            super.layoutChildren();
+        }
+
+        @Override void adjustTextSize() {
+            if (null != counters) { counters.textAdjustments++; }
+            super.adjustTextSize();
+        }
+    }
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        key         = new CountingKey("7", KeyCode.NUMPAD7);
+        longTextKey = new CountingKey("CANCEL", KeyCode.CANCEL);
+        size        = 64;
+    }
+
+
+    @Benchmark public Key<KeyCode> construct() {
+        return new Key<>("7", KeyCode.NUMPAD7);
+    }
+
+    @Benchmark public void fireKeyEvent(final Dispatch dispatch) {
+        dispatch.key.fireKeyEvent(KeyEventType.PRESSED);
+    }
+
+    // every call changes width and height, resize() only requests the layout pass that fits the text
+    @Benchmark public void resize(final Counters counters) {
+        size = size > 127 ? 64 : size + 1;
+        resize(key, size, size, counters);
+    }
+
+    @Benchmark public void resizeLongText(final Counters counters) {
+        size = size > 127 ? 64 : size + 1;
+        resize(longTextKey, size * 2, size, counters);
+    }
+
+    private static void resize(final CountingKey key, final double width, final double height, final Counters counters) {
+        key.counters = counters;
+        key.resize(width, height);
+        key.layout();
+        counters.resizes++;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Press latency of a key without rendering: the time it takes from a pressed state
+ * change until the scene graph is ready to be rendered, once with the CSS path
+ * (pseudo class change and CSS re-application) and once with baked images.
+ * Snapshots need the FX thread, so every invocation is run there.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyStateBenchmark {
+    private static final PseudoClass  PRESSED = PseudoClass.getPseudoClass("pressed");
+    private              StackPane    root;
+    private              Key<KeyCode> cssKey;
+    private              Key<KeyCode> bakedKey;
+    private              boolean      pressed;
+
+
+    @Setup(Level.Trial) public void setup() throws Exception {
+        FxTest.start();
+        onFxThread(() -> {
+            cssKey   = new Key<>("7", KeyCode.NUMPAD7);
+            bakedKey = new Key<>("7", KeyCode.NUMPAD7);
+            bakedKey.setBaked(true);
+            root = new StackPane(cssKey, bakedKey);
+            new Scene(root, 128, 128);
+            root.applyCss();
+            root.layout();
+        });
+    }
+
+
+    @Benchmark public void cssPressedStateChange() throws Exception {
+        onFxThread(() -> {
+            pressed = !pressed;
+            // same as the scene does for the node under the mouse
+            ((Node) cssKey.getChildrenUnmodifiable().get(0)).pseudoClassStateChanged(PRESSED, pressed);
+            root.applyCss();
+            root.layout();
+        });
+    }
+
+    @Benchmark public void bakedPressedStateChange() throws Exception {
+        onFxThread(() -> {
+            pressed = !pressed;
+            bakedKey.setBakedState(pressed ? KeyImageCache.PRESSED : KeyImageCache.NORMAL);
+            root.applyCss();
+            root.layout();
+        });
+    }
+
+    private static void onFxThread(final Runnable runnable) throws Exception {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                runnable.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.get(10, TimeUnit.SECONDS);
+    }
+}
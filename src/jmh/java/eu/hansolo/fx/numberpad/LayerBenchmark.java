@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Switching a pad between the number layer and a function layer, either by building
+ * and laying out a new pad or by rebinding the keys of one pad with setLayer().
+ * Run with -prof gc to compare the allocations per switch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerBenchmark {
+    private static final KeyLayout FUNCTION_LAYER = KeyLayout.parse("F1:F1:fn F2:F2:fn F3:F3:fn ESC:ESCAPE:2x1:fn\n" +
+                                                                    "F4:F4:fn F5:F5:fn F6:F6:fn BS:BACK_SPACE \\u25b2:UP\n" +
+                                                                    "F7:F7:fn F8:F8:fn F9:F9:fn DEL:DELETE \\u25bc:DOWN\n" +
+                                                                    "F10:F10:fn F11:F11:fn F12:F12:fn TAB:TAB \\u23ce:ENTER:1x2\n" +
+                                                                    "SHIFT:SHIFT:2x1 *:MULTIPLY #:NUMBER_SIGN");
+    private              StackPane root;
+    private              NumberPad numberPad;
+    private              boolean   function;
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        numberPad = new NumberPad();
+        root      = new StackPane(numberPad);
+        new Scene(root);
+        root.resize(500, 500);
+        root.layout();
+    }
+
+
+    @Benchmark public StackPane rebuild() {
+        function = !function;
+        root.getChildren().setAll(new NumberPad(function ? FUNCTION_LAYER : KeyLayout.NUMBER_PAD));
+        root.layout();
+        return root;
+    }
+
+    @Benchmark public StackPane switchLayer() {
+        function = !function;
+        numberPad.setLayer(function ? FUNCTION_LAYER : null);
+        root.layout();
+        return root;
+    }
+}
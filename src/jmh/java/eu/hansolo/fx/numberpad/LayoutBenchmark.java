@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Simulates dragging the window edge: every invocation changes the size of the
+ * scene root and runs the layout pass like one pulse would do. Counts the layout
+ * passes of the pad and the calls of its adjustTextSize(), both should be 1 per resize.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+    private StackPane   root;
+    private CountingPad numberPad;
+    private double      size;
+
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long resizes;
+        public long layoutPasses;
+        public long textAdjustments;
+
+        @Setup(Level.Iteration) public void reset() {
+            resizes         = 0;
+            layoutPasses    = 0;
+            textAdjustments = 0;
+        }
+    }
+
+
+    static class CountingPad extends NumberPad {
+        private Counters counters;
+
+        @Override protected void layoutChildren() {
+            if (null != counters) { counters.layoutPasses++; }
+            super.layoutChildren();
+        }
+
+        @Override void adjustTextSize() {
+            if (null != counters) { counters.textAdjustments++; }
+            super.adjustTextSize();
+        }
+    }
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        numberPad = new CountingPad();
+        root      = new StackPane(numberPad);
+        new Scene(root);
+        size = 250;
+        root.resize(size, size);
+        root.layout();
+    }
+
+
+    @Benchmark public void resizeDragPulse(final Counters counters) {
+        size = size > 600 ? 250 : size + 1;
+        numberPad.counters = counters;
+        root.resize(size, size * 0.8);
+        root.layout();
+        counters.resizes++;
+    }
+}
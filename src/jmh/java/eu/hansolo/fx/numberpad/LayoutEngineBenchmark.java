@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Construction and first layout pass of pads built from a KeyLayout with the given
+ * number of keys (22 is the default number pad).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutEngineBenchmark {
+    @Param({ "22", "100", "500" })
+    private int       keyCount;
+    private KeyLayout layout;
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        layout = 22 == keyCount ? KeyLayout.NUMBER_PAD : KeyLayout.parse(spec(keyCount));
+    }
+
+
+    @Benchmark public NumberPad construct() {
+        return new NumberPad(layout);
+    }
+
+    @Benchmark public StackPane constructAndLayout() {
+        final StackPane root = new StackPane(new NumberPad(layout));
+        new Scene(root);
+        root.resize(500, 500);
+        root.layout();
+        return root;
+    }
+
+    // Square grid of single cell digit keys
+    private static String spec(final int keyCount) {
+        final int           columns = (int) Math.ceil(Math.sqrt(keyCount));
+        final StringBuilder spec    = new StringBuilder();
+        for (int i = 0 ; i < keyCount ; i++) {
+            spec.append(i % 10).append(":DIGIT").append(i % 10).append(i % columns == columns - 1 ? '\n' : ' ');
+        }
+        return spec.toString();
+    }
+}
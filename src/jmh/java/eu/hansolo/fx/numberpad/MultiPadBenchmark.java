@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A dashboard of pads with per key event handlers and observers compared to pads
+ * that delegate the input to one filter and one set of observers. Run with -prof gc,
+ * gc.alloc.rate.norm is the memory needed per dashboard.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiPadBenchmark {
+    @Param({ "40" })
+    private int              padCount;
+    @Param({ "false", "true" })
+    private boolean          delegateInput;
+    private NumberPad[]      numberPads;
+    private KeyEventObserver pressedObserver;
+    private KeyEventObserver releasedObserver;
+    private KeyEventObserver repeatedObserver;
+
+
+    @Setup(Level.Trial) public void setup() {
+        FxTest.start();
+        pressedObserver  = evt -> { };
+        releasedObserver = evt -> { };
+        repeatedObserver = evt -> { };
+        numberPads       = new NumberPad[padCount];
+        for (int i = 0 ; i < padCount ; i++) { numberPads[i] = new NumberPad(KeyLayout.NUMBER_PAD, 5, 5, RenderMode.NODES, delegateInput); }
+    }
+
+
+    @Benchmark public NumberPad[] createDashboard() {
+        final NumberPad[] dashboard = new NumberPad[padCount];
+        for (int i = 0 ; i < padCount ; i++) {
+            dashboard[i] = new NumberPad(KeyLayout.NUMBER_PAD, 5, 5, RenderMode.NODES, delegateInput);
+            dashboard[i].setOnKeyPressed(pressedObserver);
+            dashboard[i].setOnKeyReleased(releasedObserver);
+            dashboard[i].setOnKeyRepeated(repeatedObserver);
+        }
+        return dashboard;
+    }
+
+    @Benchmark public NumberPad[] registerAndRemove() {
+        for (NumberPad numberPad : numberPads) {
+            numberPad.setOnKeyPressed(pressedObserver);
+            numberPad.setOnKeyReleased(releasedObserver);
+            numberPad.setOnKeyRepeated(repeatedObserver);
+        }
+        for (NumberPad numberPad : numberPads) {
+            numberPad.removeOnKeyPressed(pressedObserver);
+            numberPad.removeOnKeyReleased(releasedObserver);
+            numberPad.removeOnKeyRepeated(repeatedObserver);
+        }
+        return numberPads;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Press and release of a key with and without the PressFilter (debounce and
+ * neighbour suppression on), run with -prof gc to see that filtering doesn't allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PressFilterBenchmark {
+    @Param({ "false", "true" })
+    private boolean   filtered;
+    private List<Key> keys;
+    private int       index;
+
+
+    @Setup(Level.Trial) public void setup(final Blackhole blackhole) {
+        FxTest.start();
+        final NumberPad numberPad = new NumberPad();
+        final KeyEventObserver observer = evt -> blackhole.consume(evt);
+        numberPad.setOnKeyPressed(observer);
+        if (filtered) { numberPad.enablePressFilter(20, 0, 20); }
+        keys = numberPad.getKeys();
+    }
+
+
+    // cycles through the keys in layout order, with the filter most presses hit a neighbour within 20ms and are rejected
+    @Benchmark public void pressRelease() {
+        index = index + 1 == keys.size() ? 0 : index + 1;
+        final Key key = keys.get(index);
+        key.fireKeyEvent(KeyEventType.PRESSED);
+        key.fireKeyEvent(KeyEventType.RELEASED);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Handing the events of a pad to a consumer thread: an observer that submits every
+ * event to the executor by hand compared to a KeyEventPublisher subscriber and a
+ * subscriber of batched events. Measures the cost per event on the FX thread, the
+ * number of thread hops per event is printed at the end of the trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublisherBenchmark {
+    private static final int             BURST = 64;
+    @Param({ "observer", "publisher", "batched" })
+    private              String          mode;
+    private              ExecutorService consumer;
+    private              AtomicLong      hops;
+    private              AtomicLong      received;
+    private              List<Key>       keys;
+    private              Runnable        burst;
+
+
+    @Setup(Level.Trial) public void setup(final Blackhole blackhole) throws InterruptedException {
+        FxTest.start();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        consumer = executor;
+        hops     = new AtomicLong();
+        received = new AtomicLong();
+        final NumberPad numberPad = new NumberPad();
+        keys  = numberPad.getKeys();
+        burst = () -> {
+            for (int i = 0 ; i < BURST / 2 ; i++) {
+                final Key key = keys.get(i % keys.size());
+                key.dispatchKeyEvent(KeyEventType.PRESSED, 0);
+                key.dispatchKeyEvent(KeyEventType.RELEASED, 0);
+            }
+        };
+        final KeyEventPublisher publisher = numberPad.createPublisher(command -> { hops.incrementAndGet(); executor.execute(command); }, 4096, OverflowPolicy.DROP_OLDEST);
+        switch (mode) {
+            case "observer":
+                final KeyEventObserver observer = evt -> {
+                    hops.incrementAndGet();
+                    executor.execute(() -> { blackhole.consume(evt); received.incrementAndGet(); });
+                };
+                numberPad.setOnKeyPressed(observer);
+                numberPad.setOnKeyReleased(observer);
+                break;
+            case "publisher":
+                publisher.subscribe(new Consumer<>(blackhole));
+                break;
+            case "batched":
+                publisher.batched(BURST).subscribe(new Consumer<>(blackhole));
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial) public void tearDown() {
+        consumer.shutdown();
+        System.out.printf("%n%s: %.3f thread hops per event%n", mode, hops.get() / (double) Math.max(1, received.get()));
+    }
+
+
+    @Benchmark @OperationsPerInvocation(BURST) public void publish() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            burst.run();
+            latch.countDown();
+        });
+        latch.await();
+    }
+
+
+    private class Consumer<T> implements Flow.Subscriber<T> {
+        private final Blackhole blackhole;
+
+
+        Consumer(final Blackhole blackhole) { this.blackhole = blackhole; }
+
+
+        @Override public void onSubscribe(final Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+        @Override public void onNext(final T item) {
+            blackhole.consume(item);
+            received.addAndGet(item instanceof KeyEvent[] ? ((KeyEvent[]) item).length : 1);
+        }
+        @Override public void onError(final Throwable throwable) { }
+        @Override public void onComplete() { }
+    }
+}
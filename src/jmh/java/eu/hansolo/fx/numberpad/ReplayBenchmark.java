@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Replays a recording of 100000 events into a NumberPad with one observer,
+ * the score is in events per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    private static final int            EVENTS = 100_000;
+    private              Path           file;
+    private              NumberPad      numberPad;
+    private              KeyEventPlayer player;
+
+
+    @Setup(Level.Trial) public void setup(final Blackhole blackhole) throws IOException {
+        FxTest.start();
+        file      = Files.createTempFile("numberpad", ".rec");
+        numberPad = new NumberPad();
+        try (KeyEventRecorder recorder = new KeyEventRecorder(file, EVENTS)) {
+            recorder.start(numberPad);
+            for (int i = 0 ; i < EVENTS / 2 ; i++) {
+                final Key key = numberPad.getKeys().get(i % numberPad.getKeys().size());
+                key.dispatchKeyEvent(KeyEventType.PRESSED, 0);
+                key.dispatchKeyEvent(KeyEventType.RELEASED, 0);
+            }
+        }
+        KeyEventObserver observer = evt -> blackhole.consume(evt);
+        numberPad.setOnKeyPressed(observer);
+        player = new KeyEventPlayer(file);
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws IOException {
+        player.close();
+        Files.deleteIfExists(file);
+    }
+
+
+    @Benchmark @OperationsPerInvocation(EVENTS) public long replayAll() {
+        return player.replayAll(numberPad);
+    }
+}
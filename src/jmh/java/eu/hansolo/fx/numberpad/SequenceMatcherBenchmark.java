@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * One pressed key checked against a growing number of registered sequences, with
+ * the KeySequenceMatcher compared to checking the typed text against every sequence
+ * after each key. The matcher should stay flat with the number of sequences.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceMatcherBenchmark {
+    private static final String             KEYS = "0123456789*#";
+    @Param({ "10", "1000", "10000" })
+    private              int                sequenceCount;
+    @Param({ "naive", "automaton" })
+    private              String             matcher;
+    private              String[]           sequences;
+    private              KeySequenceMatcher sequenceMatcher;
+    private              StringBuilder      typed;
+    private              char[]             input;
+    private              KeyCode[]          inputKeyCodes;
+    private              int                index;
+
+
+    @Setup(Level.Trial) public void setup(final Blackhole blackhole) {
+        final Random random = new Random(42);
+        sequences       = new String[sequenceCount];
+        sequenceMatcher = new KeySequenceMatcher();
+        typed           = new StringBuilder();
+        for (int i = 0 ; i < sequenceCount ; i++) {
+            final StringBuilder sequence = new StringBuilder();
+            final int           length   = 4 + random.nextInt(5);
+            for (int k = 0 ; k < length ; k++) { sequence.append(KEYS.charAt(random.nextInt(KEYS.length()))); }
+            sequences[i] = sequence.toString();
+            sequenceMatcher.register(() -> blackhole.consume(this), sequences[i]);
+        }
+        input         = new char[4096];
+        inputKeyCodes = new KeyCode[input.length];
+        for (int i = 0 ; i < input.length ; i++) {
+            input[i]         = KEYS.charAt(random.nextInt(KEYS.length()));
+            inputKeyCodes[i] = NumberPad.toKeyCode(input[i]);
+        }
+    }
+
+
+    @Benchmark public void press(final Blackhole blackhole) {
+        index = index + 1 == input.length ? 0 : index + 1;
+        if ("automaton".equals(matcher)) {
+            sequenceMatcher.press(inputKeyCodes[index]);
+        } else {
+            if (typed.length() == 64) { typed.delete(0, 32); }
+            typed.append(input[index]);
+            for (String sequence : sequences) {
+                if (endsWith(typed, sequence)) { blackhole.consume(sequence); }
+            }
+        }
+    }
+
+    private static boolean endsWith(final StringBuilder typed, final String sequence) {
+        final int offset = typed.length() - sequence.length();
+        if (offset < 0) { return false; }
+        for (int i = 0 ; i < sequence.length() ; i++) {
+            if (typed.charAt(offset + i) != sequence.charAt(i)) { return false; }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cold start: every fork is a fresh JVM that starts the toolkit, shows a stage with
+ * a NumberPad and waits for its first pulse. With preload the font and the classes
+ * of the pad are loaded in the background while the toolkit starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+    @Param({ "false", "true" })
+    private boolean preload;
+
+
+    @Benchmark public void timeToFirstFrame() throws InterruptedException {
+        if (preload) { NumberPad.preload(); }
+        FxTest.start();
+        final CountDownLatch firstFrame = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            final Scene scene = new Scene(new StackPane(new NumberPad()));
+            scene.addPostLayoutPulseListener(firstFrame::countDown);
+            final Stage stage = new Stage();
+            stage.setScene(scene);
+            stage.show();
+        });
+        if (!firstFrame.await(30, TimeUnit.SECONDS)) { throw new IllegalStateException("No frame within 30s"); }
+    }
+}
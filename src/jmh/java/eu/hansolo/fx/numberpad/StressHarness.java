@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.TouchEvent;
+import javafx.scene.input.TouchPoint;
+import javafx.scene.layout.FlowPane;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Creates N number pads in one scene and injects synthetic mouse and touch
+ * press/release sequences into the event handlers of their keys on the FX
+ * thread. After every batch of events CSS and layout are processed like a pulse
+ * would do (without rendering). The result is written as JSON report, e.g.
+ * gradlew stress -Pstress.pads=40 -Pstress.events=1000000
+ * Arguments: [pads] [events] [batch size] [report file]
+ */
+public class StressHarness {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+
+    public static void main(final String[] args) throws Exception {
+        final int  pads      = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        final long events    = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        final int  batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        final Path report    = Paths.get(args.length > 3 ? args[3] : "stress-report.json");
+
+        FxTest.start();
+        final long heapBefore = usedHeap();
+
+        final List<NumberPad> numberPads = new ArrayList<>();
+        final List<Key>       keys       = new ArrayList<>();
+        final AtomicLong      received   = new AtomicLong();
+        final FlowPane[]      root       = new FlowPane[1];
+        final long            setupTime  = onFxThread(() -> {
+            root[0] = new FlowPane();
+            for (int i = 0 ; i < pads ; i++) {
+                NumberPad numberPad = new NumberPad();
+                KeyEventObserver observer = evt -> received.incrementAndGet();
+                numberPad.setOnKeyPressed(observer);
+                numberPads.add(numberPad);
+                keys.addAll(numberPad.getKeys());
+            }
+            root[0].getChildren().setAll(numberPads);
+            new Scene(root[0], 1920, 1080);
+            root[0].applyCss();
+            root[0].layout();
+        });
+        final long heapAfterSetup = usedHeap();
+
+        // pre-built events, the dispatch makes copies for the target anyway
+        final int          keyCount      = keys.size();
+        final MouseEvent[] mousePressed  = new MouseEvent[keyCount];
+        final MouseEvent[] mouseReleased = new MouseEvent[keyCount];
+        final TouchEvent[] touchPressed  = new TouchEvent[keyCount];
+        final TouchEvent[] touchReleased = new TouchEvent[keyCount];
+        for (int i = 0 ; i < keyCount ; i++) {
+            final Key key = keys.get(i);
+            mousePressed[i]  = mouseEvent(key, MouseEvent.MOUSE_PRESSED);
+            mouseReleased[i] = mouseEvent(key, MouseEvent.MOUSE_RELEASED);
+            touchPressed[i]  = touchEvent(key, TouchEvent.TOUCH_PRESSED, TouchPoint.State.PRESSED);
+            touchReleased[i] = touchEvent(key, TouchEvent.TOUCH_RELEASED, TouchPoint.State.RELEASED);
+        }
+
+        long injected   = 0;
+        long pulseTotal = 0;
+        long pulseMax   = 0;
+        long pulses     = 0;
+        long start      = System.nanoTime();
+        while (injected < events) {
+            final long from  = injected;
+            final long count = Math.min(batchSize, events - injected);
+            onFxThread(() -> {
+                for (long n = from ; n < from + count ; n += 2) {
+                    final int     index = (int) ((n / 2) % keyCount);
+                    final Key     key   = keys.get(index);
+                    final boolean touch = ((n / 2) & 1) == 1;
+                    Event.fireEvent(key, touch ? touchPressed[index] : mousePressed[index]);
+                    Event.fireEvent(key, touch ? touchReleased[index] : mouseReleased[index]);
+                }
+            });
+            final long pulseTime = onFxThread(() -> {
+                root[0].applyCss();
+                root[0].layout();
+            });
+            pulseTotal += pulseTime;
+            pulseMax    = Math.max(pulseMax, pulseTime);
+            pulses++;
+            injected   += count;
+        }
+        final long   duration     = System.nanoTime() - start;
+        final long   heapAfterRun = usedHeap();
+        final double eventsPerSec = injected / (duration / 1e9);
+
+        final String json = String.format(Locale.US,
+            "{%n" +
+            "  \"javaVersion\"        : \"%s\",%n" +
+            "  \"javafxVersion\"      : \"%s\",%n" +
+            "  \"pads\"               : %d,%n" +
+            "  \"keys\"               : %d,%n" +
+            "  \"injectedEvents\"     : %d,%n" +
+            "  \"receivedPresses\"    : %d,%n" +
+            "  \"eventsPerSecond\"    : %.1f,%n" +
+            "  \"setupMillis\"        : %.3f,%n" +
+            "  \"pulses\"             : %d,%n" +
+            "  \"pulseMeanMillis\"    : %.4f,%n" +
+            "  \"pulseMaxMillis\"     : %.4f,%n" +
+            "  \"heapBeforeBytes\"    : %d,%n" +
+            "  \"heapAfterSetupBytes\": %d,%n" +
+            "  \"heapAfterRunBytes\"  : %d,%n" +
+            "  \"heapGrowthBytes\"    : %d%n" +
+            "}%n",
+            System.getProperty("java.version"), System.getProperty("javafx.runtime.version"), pads, keyCount, injected, received.get(),
+            eventsPerSec, setupTime / 1e6, pulses, pulseTotal / 1e6 / Math.max(1, pulses), pulseMax / 1e6,
+            heapBefore, heapAfterSetup, heapAfterRun, heapAfterRun - heapBefore);
+        if (null != report.getParent()) { Files.createDirectories(report.getParent()); }
+        Files.writeString(report, json);
+        System.out.print(json);
+        Platform.exit();
+    }
+
+    private static MouseEvent mouseEvent(final Key key, final javafx.event.EventType<MouseEvent> type) {
+        final double x = key.getWidth() * 0.5;
+        final double y = key.getHeight() * 0.5;
+        return new MouseEvent(key, key, type, x, y, x, y, MouseButton.PRIMARY, 1, false, false, false, false,
+                              MouseEvent.MOUSE_PRESSED == type, false, false, true, false, true, null);
+    }
+
+    private static TouchEvent touchEvent(final Key key, final javafx.event.EventType<TouchEvent> type, final TouchPoint.State state) {
+        final double     x     = key.getWidth() * 0.5;
+        final double     y     = key.getHeight() * 0.5;
+        final TouchPoint point = new TouchPoint(1, state, x, y, x, y, key, null);
+        return new TouchEvent(key, key, type, point, List.of(point), 1, false, false, false, false);
+    }
+
+    // Runs the given runnable on the FX thread, waits for it and returns its duration in ns
+    private static long onFxThread(final Runnable runnable) throws Exception {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                final long start = System.nanoTime();
+                runnable.run();
+                future.complete(System.nanoTime() - start);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future.get(60, TimeUnit.SECONDS);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
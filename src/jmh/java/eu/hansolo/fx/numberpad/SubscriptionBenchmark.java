@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Dispatch of a key press to a growing number of observers that are each interested
+ * in one key, either registered for all keys and filtering themselves or subscribed
+ * with their key code. The indexed dispatch should stay flat with the subscriber count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionBenchmark {
+    @Param({ "10", "100", "500" })
+    private int       subscribers;
+    @Param({ "false", "true" })
+    private boolean   indexed;
+    private List<Key> keys;
+    private int       index;
+
+
+    @Setup(Level.Trial) public void setup(final Blackhole blackhole) {
+        FxTest.start();
+        final NumberPad numberPad = new NumberPad();
+        keys = numberPad.getKeys();
+        for (int i = 0 ; i < subscribers ; i++) {
+            final KeyCode keyCode = (KeyCode) keys.get(i % keys.size()).getMetaData();
+            if (indexed) {
+                numberPad.subscribe(KeyEventType.PRESSED, evt -> blackhole.consume(evt), keyCode);
+            } else {
+                final KeyEventObserver observer = evt -> { if (keyCode == evt.getKey().getMetaData()) { blackhole.consume(evt); } };
+                numberPad.setOnKeyPressed(observer);
+            }
+        }
+    }
+
+
+    @Benchmark public void press() {
+        index = index + 1 == keys.size() ? 0 : index + 1;
+        keys.get(index).dispatchKeyEvent(KeyEventType.PRESSED, 0);
+    }
+}
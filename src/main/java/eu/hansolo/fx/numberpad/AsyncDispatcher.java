@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Dispatches KeyEvents asynchronously to the observers of their keys. The events
+ * are published (by the FX thread) into a pre-allocated bounded ring buffer and
+ * consumed on the given Executor. There is never more than one consumer task
+ * running, so the order of the events is preserved for all keys that share the
+ * dispatcher (e.g. all keys of a NumberPad).
+ * If the buffer is full the OverflowPolicy decides what happens:
+ * BLOCK waits for free space, DROP_OLDEST drops the oldest pending event and
+ * COALESCE drops the new event if the newest pending event is the same type of
+ * event of the same key (otherwise it drops the oldest one).
+ * The observers are called on the executor, so they must not touch the scene graph
+ * (not even the state of a key). InputBuffer and EntryMask enable and disable keys,
+ * they must not be attached to a pad that dispatches asynchronously.
+ */
+public class AsyncDispatcher {
+    public  static final int                  DEFAULT_CAPACITY = 1024;
+    private final        RingBuffer<KeyEvent> buffer;
+    private final        Executor             executor;
+    private final        OverflowPolicy       overflowPolicy;
+    private final        AtomicLong           droppedEvents;
+    private final        AtomicBoolean        scheduled;
+    private final        Runnable             drainTask;
+    private volatile     long                 maxQueueDepth;
+
+
+    // ******************** Constructors **************************************
+    public AsyncDispatcher(final Executor executor) {
+        this(executor, DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+    public AsyncDispatcher(final Executor executor, final int capacity, final OverflowPolicy overflowPolicy) {
+        if (null == executor) { throw new IllegalArgumentException("executor must not be null"); }
+        this.buffer         = new RingBuffer<>(capacity);
+        this.executor       = executor;
+        this.overflowPolicy = null == overflowPolicy ? OverflowPolicy.DROP_OLDEST : overflowPolicy;
+        this.droppedEvents  = new AtomicLong();
+        this.scheduled      = new AtomicBoolean();
+        this.drainTask      = this::drain;
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getCapacity() { return buffer.getCapacity(); }
+
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+
+    public Executor getExecutor() { return executor; }
+
+    public long getQueueDepth() { return buffer.size(); }
+
+    public long getMaxQueueDepth() { return maxQueueDepth; }
+
+    public long getPublishedEvents() { return buffer.getAdded(); }
+
+    public long getDroppedEvents() { return droppedEvents.get(); }
+
+    // Single producer: must always be called from the same thread (the FX thread)
+    void publish(final KeyEvent evt) {
+        while (true) {
+            if (buffer.offer(evt)) {
+                final long depth = buffer.size();
+                if (depth > maxQueueDepth) { maxQueueDepth = depth; }
+                schedule();
+                return;
+            }
+            switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    if (buffer.dropOldest()) { droppedEvents.incrementAndGet(); }
+                    break;
+                case COALESCE:
+                    // the events are immutable, a pending press (or release) of the same key stands for the new one
+                    final KeyEvent newest = buffer.peekNewest();
+                    if (null != newest && newest.getKey() == evt.getKey() && newest.getType() == evt.getType()) {
+                        droppedEvents.incrementAndGet();
+                        schedule();
+                        return;
+                    }
+                    if (buffer.dropOldest()) { droppedEvents.incrementAndGet(); }
+                    break;
+                case BLOCK:
+                default:
+                    schedule();
+                    LockSupport.parkNanos(10_000);
+                    break;
+            }
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            KeyEvent evt;
+            while (null != (evt = buffer.poll())) { evt.getKey().notifyObservers(evt); }
+            scheduled.set(false);
+        } while (!buffer.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+}
@@ -17,6 +17,7 @@
 package eu.hansolo.fx.numberpad;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
@@ -24,6 +25,8 @@ import javafx.stage.Stage;
 
 
 public class Demo extends Application {
+    // Used to train the AppCDS archive (gradlew jlinkCds): prints the time to the first frame and exits
+    private static final boolean EXIT_AFTER_FIRST_FRAME = Boolean.getBoolean("numberpad.exitAfterFirstFrame");
     private NumberPad numberPad;
 
     @Override public void init() {
@@ -31,15 +34,23 @@ public class Demo extends Application {
 
         KeyEventObserver pressedObserver  = evt -> System.out.println(evt.getKey().getMetaData() + " pressed");
         KeyEventObserver releasedObserver = evt -> System.out.println(evt.getKey().getMetaData() + " released");
+        KeyEventObserver repeatedObserver = evt -> System.out.println(evt.getKey().getMetaData() + " repeated");
 
         numberPad.setOnKeyPressed(pressedObserver);
         numberPad.setOnKeyReleased(releasedObserver);
+        numberPad.setOnKeyRepeated(repeatedObserver);
     }
 
     @Override public void start(Stage stage) {
         StackPane pane = new StackPane(numberPad);
 
         Scene scene = new Scene(pane);
+        if (EXIT_AFTER_FIRST_FRAME) {
+            scene.addPostLayoutPulseListener(() -> Platform.runLater(() -> {
+                ProcessHandle.current().info().startInstant().ifPresent(start -> System.out.println("First frame after " + (System.currentTimeMillis() - start.toEpochMilli()) + " ms"));
+                Platform.exit();
+            }));
+        }
 
         stage.setTitle("NumberPad");
         stage.setScene(scene);
@@ -51,6 +62,7 @@ public class Demo extends Application {
     }
 
     public static void main(String[] args) {
+        NumberPad.preload();
         launch(args);
     }
 }
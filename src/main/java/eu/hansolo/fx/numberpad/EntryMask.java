@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Validated entry of formatted numbers. The spec is compiled into a sequence of
+ * segments that is run as a small deterministic automaton, every key is accepted
+ * or rejected in constant time and the values of the fields are kept up to date
+ * while typing. Attached to a NumberPad all keys that can't lead to a valid entry
+ * are disabled. Spec syntax:
+ * <pre>
+ * #           one digit
+ * #{n}        n digits
+ * #{min,max}  min to max digits
+ * [lo-hi]     an integer from lo to hi (without leading zeros)
+ * \c          the literal character c
+ * </pre>
+ * Any other character is a literal. Literals that are not on the pad (e.g. a
+ * currency sign, also a run of them like ") ") are inserted automatically when the
+ * next digit is typed, literals at the end of the spec don't have to be typed.
+ * Examples: currency "#{1,9}.##", IPv4 "[0-255].[0-255].[0-255].[0-255]",
+ * PIN "#{4}", port "[0-65535]".
+ * Must only be used on the FX thread.
+ */
+public class EntryMask implements KeyEventObserver, CharSequence {
+    private static final int       LITERAL    = 0;
+    private static final int       DIGITS     = 1;
+    private static final int       RANGE      = 2;
+    private static final int       MAX_DIGITS = 18;
+    private final        String    spec;
+    private final        int[]     types;
+    private final        char[]    literals;
+    private final        int[]     minDigits;
+    private final        int[]     maxDigits;
+    private final        long[]    lowerBounds;
+    private final        long[]    upperBounds;
+    private final        int[]     fields;
+    private final        int       trailingLiterals;
+    private final        char[]    chars;
+    private final        boolean[] inserted;
+    private final        int[]     segments;
+    private final        int[]     counts;
+    private final        long[]    values;
+    private              int       length;
+    private              Runnable  onChange;
+    private              NumberPad numberPad;
+    private final        Runnable  layerListener;
+
+
+    // ******************** Constructors **************************************
+    public EntryMask(final String spec) {
+        if (null == spec || spec.isEmpty()) { throw new IllegalArgumentException("spec must not be empty"); }
+        final List<long[]> parsed     = parse(spec);
+        final int          size       = parsed.size();
+        int                capacity   = 0;
+        int                fieldCount = 0;
+        this.spec        = spec;
+        this.types       = new int[size];
+        this.literals    = new char[size];
+        this.minDigits   = new int[size];
+        this.maxDigits   = new int[size];
+        this.lowerBounds = new long[size];
+        this.upperBounds = new long[size];
+        for (int s = 0 ; s < size ; s++) {
+            final long[] segment = parsed.get(s);
+            types[s]       = (int) segment[0];
+            literals[s]    = (char) segment[1];
+            minDigits[s]   = (int) segment[2];
+            maxDigits[s]   = (int) segment[3];
+            lowerBounds[s] = segment[4];
+            upperBounds[s] = segment[5];
+            capacity      += LITERAL == types[s] ? 1 : maxDigits[s];
+            if (LITERAL != types[s]) { fieldCount++; }
+        }
+        this.fields = new int[fieldCount];
+        for (int s = 0, f = 0 ; s < size ; s++) { if (LITERAL != types[s]) { fields[f++] = s; } }
+        this.trailingLiterals = 0 == fieldCount ? 0 : fields[fieldCount - 1] + 1;
+        this.layerListener = this::updateKeys;
+        // state after each typed char, index 0 is the initial state
+        this.chars    = new char[capacity];
+        this.inserted = new boolean[capacity];
+        this.segments = new int[capacity + 1];
+        this.counts   = new int[capacity + 1];
+        this.values   = new long[capacity + 1];
+    }
+
+
+    // ******************** Methods *******************************************
+    public String getSpec() { return spec; }
+
+    /**
+     * Registers this mask as observer of the given pad and disables all keys that
+     * can't be typed in the current state, null detaches it from its current pad.
+     */
+    public void attach(final NumberPad numberPad) {
+        detach();
+        if (null == numberPad) { return; }
+        this.numberPad = numberPad;
+        numberPad.setOnKeyPressed(this);
+        numberPad.setOnKeyRepeated(this);
+        // the keys of another layer have other key codes
+        numberPad.setOnLayerChanged(layerListener);
+        updateKeys();
+    }
+    public void detach() {
+        if (null == numberPad) { return; }
+        numberPad.removeOnKeyPressed(this);
+        numberPad.removeOnKeyRepeated(this);
+        numberPad.removeOnLayerChanged(layerListener);
+        numberPad.getKeys().forEach(key -> numberPad.setKeyEnabled(key, true));
+        numberPad = null;
+    }
+
+    @Override public void onKeyEvent(final KeyEvent evt) {
+        if (KeyEventType.RELEASED == evt.getType()) { return; }
+        final Object metaData = evt.getKey().getMetaData();
+        if (metaData instanceof KeyCode) { handle((KeyCode) metaData); }
+    }
+
+    public boolean handle(final KeyCode keyCode) {
+        final boolean changed;
+        switch (keyCode) {
+            case BACK_SPACE: changed = backspace(); break;
+            case CLEAR     : changed = clear(); break;
+            default        :
+                final char c = toChar(keyCode);
+                changed = 0 != c && type(c);
+                break;
+        }
+        if (changed) {
+            updateKeys();
+            if (null != onChange) { onChange.run(); }
+        }
+        return changed;
+    }
+
+    // True if the given key would change the entry in the current state
+    public boolean accepts(final KeyCode keyCode) {
+        switch (keyCode) {
+            case BACK_SPACE:
+            case CLEAR     : return length > 0;
+            case ENTER     : return isComplete();
+            case CANCEL    : return true;
+            default        :
+                final char c = toChar(keyCode);
+                return 0 != c && 0 != charsToType(c);
+        }
+    }
+
+    public void setOnChange(final Runnable onChange) { this.onChange = onChange; }
+
+    // True if all segments are filled and all values are in range, literals at the end count as filled
+    public boolean isComplete() {
+        final int s = segments[length];
+        if (s >= trailingLiterals) { return true; }
+        return s + 1 == trailingLiterals && isFieldComplete(s, counts[length], values[length]);
+    }
+
+    public int getFieldCount() { return fields.length; }
+
+    /** Returns the value of the given field (0 based, literals are not counted), 0 if nothing was typed in it */
+    public long getFieldValue(final int field) {
+        final int segment = fields[field];
+        for (int i = length ; i > 0 ; i--) {
+            if (segments[i] == segment && counts[i] > 0) { return values[i]; }
+            if (segments[i] < segment) { break; }
+        }
+        return 0;
+    }
+
+    /** Returns the number of digits typed in the given field */
+    public int getFieldLength(final int field) {
+        final int segment = fields[field];
+        for (int i = length ; i > 0 ; i--) {
+            if (segments[i] == segment && counts[i] > 0) { return counts[i]; }
+            if (segments[i] < segment) { break; }
+        }
+        return 0;
+    }
+
+    public boolean type(final char c) {
+        final int n = charsToType(c);
+        if (0 == n) { return false; }
+        // the literals before c are inserted automatically
+        for (int i = 1 ; i < n ; i++) { push(literals[segments[length] + (LITERAL == types[segments[length]] ? 0 : 1)], true); }
+        push(c, false);
+        return true;
+    }
+
+    public boolean backspace() {
+        if (0 == length) { return false; }
+        length--;
+        // literals that were inserted automatically go together with the digit after them
+        while (length > 0 && inserted[length - 1]) { length--; }
+        return true;
+    }
+
+    public boolean clear() {
+        if (0 == length) { return false; }
+        length = 0;
+        return true;
+    }
+
+    @Override public int length() { return length; }
+
+    @Override public char charAt(final int index) {
+        if (index < 0 || index >= length) { throw new IndexOutOfBoundsException(index); }
+        return chars[index];
+    }
+
+    @Override public CharSequence subSequence(final int start, final int end) { return toString().subSequence(start, end); }
+
+    @Override public String toString() { return new String(chars, 0, length); }
+
+    // Number of chars that typing c adds (incl. the literals that have to be inserted before c), 0 if c is rejected
+    private int charsToType(final char c) {
+        final int  s = segments[length];
+        final int  d = counts[length];
+        final long v = values[length];
+        if (s >= types.length) { return 0; }
+        if (LITERAL != types[s]) {
+            if (isDigit(c) && canAppend(s, d, v, c)) { return length < chars.length ? 1 : 0; }
+            if (!isFieldComplete(s, d, v)) { return 0; }
+        }
+        // c is one of the literals of the following run or the first digit of the field after it
+        final int first = LITERAL == types[s] ? s : s + 1;
+        int       next  = first;
+        while (next < types.length && LITERAL == types[next]) {
+            if (c == literals[next]) { return fits(next - first + 1); }
+            next++;
+        }
+        return next < types.length && isDigit(c) && canAppend(next, 0, 0, c) ? fits(next - first + 1) : 0;
+    }
+
+    private int fits(final int n) { return length + n <= chars.length ? n : 0; }
+
+    private void push(final char c, final boolean automatic) {
+        int  s = segments[length];
+        int  d = counts[length];
+        long v = values[length];
+        if (LITERAL != types[s] && isDigit(c) && canAppend(s, d, v, c)) {
+            d++;
+            v = v * 10 + (c - '0');
+        } else {
+            // a literal, either at the current segment or after the completed field
+            s = LITERAL == types[s] ? s + 1 : s + 2;
+            d = 0;
+            v = 0;
+        }
+        chars[length]    = c;
+        inserted[length] = automatic;
+        length++;
+        segments[length] = s;
+        counts[length]   = d;
+        values[length]   = v;
+    }
+
+    private boolean canAppend(final int s, final int d, final long v, final char c) {
+        if (d >= maxDigits[s]) { return false; }
+        if (DIGITS == types[s]) { return true; }
+        // no leading zeros: a 0 is only a value of its own, which needs a range that contains 0
+        if (0 == d && '0' == c && maxDigits[s] > 1 && lowerBounds[s] > 0) { return false; }
+        if (1 == d && 0 == v) { return false; }
+        final long value = v * 10 + (c - '0');
+        // can the value still end up in [lo, hi] with the remaining digits
+        long scale = 1;
+        for (int k = d + 1 ; k <= maxDigits[s] ; k++) {
+            final long min = value * scale;
+            final long max = min + scale - 1;
+            if (min > upperBounds[s]) { return false; }
+            if (max >= lowerBounds[s]) { return true; }
+            scale *= 10;
+        }
+        return false;
+    }
+
+    private boolean isFieldComplete(final int s, final int d, final long v) {
+        if (LITERAL == types[s]) { return false; }
+        if (DIGITS == types[s]) { return d >= minDigits[s]; }
+        return d > 0 && v >= lowerBounds[s] && v <= upperBounds[s];
+    }
+
+    private void updateKeys() {
+        if (null == numberPad) { return; }
+        final List<Key> keys = numberPad.getKeys();
+        for (int i = 0 ; i < keys.size() ; i++) {
+            final Key    key      = keys.get(i);
+            final Object metaData = key.getMetaData();
+            numberPad.setKeyEnabled(key, metaData instanceof KeyCode && accepts((KeyCode) metaData));
+        }
+    }
+
+    private static boolean isDigit(final char c) { return c >= '0' && c <= '9'; }
+
+    private static char toChar(final KeyCode keyCode) {
+        switch (keyCode) {
+            case NUMPAD0: case DIGIT0: return '0';
+            case NUMPAD1: case DIGIT1: return '1';
+            case NUMPAD2: case DIGIT2: return '2';
+            case NUMPAD3: case DIGIT3: return '3';
+            case NUMPAD4: case DIGIT4: return '4';
+            case NUMPAD5: case DIGIT5: return '5';
+            case NUMPAD6: case DIGIT6: return '6';
+            case NUMPAD7: case DIGIT7: return '7';
+            case NUMPAD8: case DIGIT8: return '8';
+            case NUMPAD9: case DIGIT9: return '9';
+            case SEPARATOR: case DECIMAL: case PERIOD: return '.';
+            case MINUS: case SUBTRACT: return '-';
+            case PLUS : case ADD     : return '+';
+            default                  : return 0;
+        }
+    }
+
+    // Segments as { type, literal, minDigits, maxDigits, lowerBound, upperBound }
+    private static List<long[]> parse(final String spec) {
+        final List<long[]> segments = new ArrayList<>();
+        for (int i = 0 ; i < spec.length() ; i++) {
+            final char c = spec.charAt(i);
+            if ('#' == c) {
+                int min = 1;
+                int max = 1;
+                if (i + 1 < spec.length() && '{' == spec.charAt(i + 1)) {
+                    final int end = spec.indexOf('}', i);
+                    if (end < 0) { throw new IllegalArgumentException("Missing } at " + i + " in " + spec); }
+                    final String[] bounds = spec.substring(i + 2, end).split(",");
+                    try {
+                        min = Integer.parseInt(bounds[0].trim());
+                        max = 2 == bounds.length ? Integer.parseInt(bounds[1].trim()) : min;
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid digit count at " + i + " in " + spec);
+                    }
+                    i = end;
+                } else {
+                    // ### is one field of 3 digits
+                    while (i + 1 < spec.length() && '#' == spec.charAt(i + 1) && (i + 2 >= spec.length() || '{' != spec.charAt(i + 2))) { min++; max++; i++; }
+                }
+                if (min < 0 || max < 1 || min > max) { throw new IllegalArgumentException("Invalid digit count at " + i + " in " + spec); }
+                segments.add(new long[] { DIGITS, 0, min, max, 0, 0 });
+            } else if ('[' == c) {
+                final int end  = spec.indexOf(']', i);
+                final int dash = spec.indexOf('-', i + 2);
+                if (end < 0 || dash < 0 || dash > end) { throw new IllegalArgumentException("Invalid range at " + i + " in " + spec); }
+                final long lo;
+                final long hi;
+                try {
+                    lo = Long.parseLong(spec.substring(i + 1, dash).trim());
+                    hi = Long.parseLong(spec.substring(dash + 1, end).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid range at " + i + " in " + spec);
+                }
+                if (lo < 0 || lo > hi || Long.toString(hi).length() > MAX_DIGITS) { throw new IllegalArgumentException("Invalid range at " + i + " in " + spec); }
+                segments.add(new long[] { RANGE, 0, 1, Long.toString(hi).length(), lo, hi });
+                i = end;
+            } else {
+                final char literal = '\\' == c && i + 1 < spec.length() ? spec.charAt(++i) : c;
+                segments.add(new long[] { LITERAL, literal, 0, 0, 0, 0 });
+            }
+        }
+        return segments;
+    }
+}
@@ -17,21 +17,75 @@
 package eu.hansolo.fx.numberpad;
 
 import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 public class Fonts {
-    private static final String ROBOTO_MONO_REGULAR_NAME;
+    private static final String             ROBOTO_MONO_REGULAR_NAME;
+    private static final double             ROBOTO_MONO_REGULAR_ADVANCE;
+    private static final double             ROBOTO_MONO_REGULAR_ASCENT;
+    private static final double             MEASURE_SIZE     = 100;
+    private static final double             SIZE_QUANTUM     = 0.5;
+    private static final int                MAX_CACHED_FONTS = 64;
+    private static final Map<Integer, Font> ROBOTO_MONO_REGULAR_CACHE;
 
     private static String robotoMonoRegularName;
+    private static double robotoMonoRegularAdvance = 0.6;
+    private static double robotoMonoRegularAscent  = 0.75;
 
     static {
         try {
             robotoMonoRegularName      = Font.loadFont(Fonts.class.getResourceAsStream("/eu/hansolo/fx/numberpad/RobotoMono-Regular.ttf"), 10).getName();
+
+            // Roboto Mono is monospaced, so one glyph advance and the ascent are enough to fit any label
+            Text measure = new Text("0");
+            measure.setFont(new Font(robotoMonoRegularName, MEASURE_SIZE));
+            robotoMonoRegularAdvance = measure.getLayoutBounds().getWidth() / MEASURE_SIZE;
+            robotoMonoRegularAscent  = measure.getBaselineOffset() / MEASURE_SIZE;
         } catch (Exception exception) { }
         ROBOTO_MONO_REGULAR_NAME       = robotoMonoRegularName;
+        ROBOTO_MONO_REGULAR_ADVANCE    = robotoMonoRegularAdvance;
+        ROBOTO_MONO_REGULAR_ASCENT     = robotoMonoRegularAscent;
+        ROBOTO_MONO_REGULAR_CACHE      = new LinkedHashMap<>(MAX_CACHED_FONTS, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(final Map.Entry<Integer, Font> eldest) { return size() > MAX_CACHED_FONTS; }
+        };
     }
 
 
     // ******************** Methods *******************************************
-    public static Font robotoMonoRegular(final double SIZE) { return new Font(ROBOTO_MONO_REGULAR_NAME, SIZE); }
+    /**
+     * Returns the Roboto Mono Regular font in the given size. The size is quantized
+     * to steps of 0.5px and the fonts are cached (LRU), so calling this while resizing
+     * doesn't create a new Font on every call.
+     */
+    public static Font robotoMonoRegular(final double SIZE) {
+        final Integer key = (int) Math.round(SIZE / SIZE_QUANTUM);
+        synchronized (ROBOTO_MONO_REGULAR_CACHE) {
+            Font font = ROBOTO_MONO_REGULAR_CACHE.get(key);
+            if (null == font) {
+                font = new Font(ROBOTO_MONO_REGULAR_NAME, key * SIZE_QUANTUM);
+                ROBOTO_MONO_REGULAR_CACHE.put(key, font);
+            }
+            return font;
+        }
+    }
+
+    /**
+     * Returns the largest Roboto Mono Regular font size for which a text with the
+     * given number of characters fits into the given width and height.
+     */
+    public static double robotoMonoRegularFittingSize(final double WIDTH, final double HEIGHT, final int LENGTH) {
+        final double sizeForWidth  = LENGTH > 0 ? WIDTH / (LENGTH * ROBOTO_MONO_REGULAR_ADVANCE) : Double.MAX_VALUE;
+        final double sizeForHeight = HEIGHT / ROBOTO_MONO_REGULAR_ASCENT;
+        return Math.min(sizeForWidth, sizeForHeight);
+    }
+
+    /** Returns the glyph advance of Roboto Mono Regular relative to the font size */
+    public static double robotoMonoRegularAdvance() { return ROBOTO_MONO_REGULAR_ADVANCE; }
+
+    /** Returns the ascent of Roboto Mono Regular relative to the font size */
+    public static double robotoMonoRegularAscent() { return ROBOTO_MONO_REGULAR_ASCENT; }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Latency histogram with fixed power of two buckets (bucket n counts latencies
+ * between 2^(n-1) and 2^n - 1 nanoseconds). Recording doesn't lock and doesn't
+ * allocate. It can be written by several threads (e.g. the FX thread and the
+ * executor of an AsyncDispatcher) and read by any thread.
+ */
+public class Histogram {
+    public  static final int             BUCKETS = 40;
+    private static final int             COUNT   = BUCKETS;
+    private static final int             SUM     = BUCKETS + 1;
+    private static final int             MAX     = BUCKETS + 2;
+    private final        AtomicLongArray values;
+
+
+    // ******************** Constructors **************************************
+    public Histogram() {
+        values = new AtomicLongArray(BUCKETS + 3);
+    }
+
+
+    // ******************** Methods *******************************************
+    public void record(final long nanos) {
+        final long value  = nanos < 0 ? 0 : nanos;
+        final int  bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+        values.getAndIncrement(bucket);
+        values.getAndIncrement(COUNT);
+        values.getAndAdd(SUM, value);
+        if (value > values.get(MAX)) { values.accumulateAndGet(MAX, value, Math::max); }
+    }
+
+    public long[] getBuckets() {
+        final long[] buckets = new long[BUCKETS];
+        for (int i = 0 ; i < BUCKETS ; i++) { buckets[i] = values.get(i); }
+        return buckets;
+    }
+
+    public long getCount() { return values.get(COUNT); }
+
+    public long getMax() { return values.get(MAX); }
+
+    public double getMean() {
+        final long count = getCount();
+        return 0 == count ? 0 : values.get(SUM) / (double) count;
+    }
+
+    // Upper bound (ns) of the bucket that contains the given percentile (0 - 100)
+    public long getPercentile(final double percentile) {
+        final long count = getCount();
+        if (0 == count) { return 0; }
+        final long limit = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long sum = 0;
+        for (int i = 0 ; i < BUCKETS ; i++) {
+            sum += values.get(i);
+            if (sum >= limit) { return (1L << i) - 1; }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0 ; i < values.length() ; i++) { values.set(i, 0); }
+    }
+}
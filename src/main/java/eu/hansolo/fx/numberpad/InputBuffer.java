@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Numeric input model that is driven by the KeyCode metaData of the keys of a
+ * NumberPad. The digits are kept in a gap buffer of chars, so typing and moving
+ * the cursor doesn't allocate. The value is parsed on demand only.
+ * The buffer itself is a CharSequence (including the sign) and can be read
+ * without creating a String.
+ */
+public class InputBuffer implements KeyEventObserver, CharSequence {
+    public  static final int      DEFAULT_CAPACITY = 32;
+    private static final double[] POW10            = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                                                       1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private final        char[]   buffer;
+    private final        char[]   scratch;
+    private              int      gapStart;
+    private              int      gapEnd;
+    private              int      dotCount;
+    private              boolean  negative;
+    private              Runnable onChange;
+
+
+    // ******************** Constructors **************************************
+    public InputBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+    public InputBuffer(final int capacity) {
+        if (capacity < 1) { throw new IllegalArgumentException("capacity must be > 0"); }
+        this.buffer   = new char[capacity];
+        this.scratch  = new char[capacity + 1];
+        this.gapStart = 0;
+        this.gapEnd   = capacity;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void onKeyEvent(final KeyEvent evt) {
+        if (KeyEventType.RELEASED == evt.getType()) { return; }
+        final Object metaData = evt.getKey().getMetaData();
+        if (metaData instanceof KeyCode) { handle((KeyCode) metaData); }
+    }
+
+    public boolean handle(final KeyCode keyCode) {
+        final boolean changed;
+        switch (keyCode) {
+            case NUMPAD0: case DIGIT0: changed = insert('0'); break;
+            case NUMPAD1: case DIGIT1: changed = insert('1'); break;
+            case NUMPAD2: case DIGIT2: changed = insert('2'); break;
+            case NUMPAD3: case DIGIT3: changed = insert('3'); break;
+            case NUMPAD4: case DIGIT4: changed = insert('4'); break;
+            case NUMPAD5: case DIGIT5: changed = insert('5'); break;
+            case NUMPAD6: case DIGIT6: changed = insert('6'); break;
+            case NUMPAD7: case DIGIT7: changed = insert('7'); break;
+            case NUMPAD8: case DIGIT8: changed = insert('8'); break;
+            case NUMPAD9: case DIGIT9: changed = insert('9'); break;
+            case SEPARATOR: case DECIMAL: case PERIOD: changed = insert('.'); break;
+            case MINUS: case SUBTRACT  : changed = setNegative(true); break;
+            case PLUS : case ADD       : changed = setNegative(false); break;
+            case BACK_SPACE            : changed = backspace(); break;
+            case DELETE                : changed = delete(); break;
+            case CLEAR                 : changed = clear(); break;
+            case LEFT                  : changed = moveLeft(); break;
+            case RIGHT                 : changed = moveRight(); break;
+            case UP   : case HOME      : changed = moveToStart(); break;
+            case DOWN : case END       : changed = moveToEnd(); break;
+            default                    : changed = false; break;
+        }
+        if (changed && null != onChange) { onChange.run(); }
+        return changed;
+    }
+
+    public void setOnChange(final Runnable onChange) { this.onChange = onChange; }
+
+    public int getCapacity() { return buffer.length; }
+
+    public int getDigitCount() { return buffer.length - (gapEnd - gapStart); }
+
+    public int getCursor() { return gapStart; }
+
+    public boolean isNegative() { return negative; }
+
+    public boolean isEmpty() { return 0 == getDigitCount(); }
+
+    public boolean insert(final char c) {
+        if (gapStart == gapEnd) { return false; }
+        if ('.' == c) {
+            if (dotCount > 0) { return false; }
+            dotCount++;
+        } else if (c < '0' || c > '9') {
+            return false;
+        }
+        buffer[gapStart++] = c;
+        return true;
+    }
+
+    public boolean backspace() {
+        if (0 == gapStart) { return false; }
+        if ('.' == buffer[--gapStart]) { dotCount--; }
+        return true;
+    }
+
+    public boolean delete() {
+        if (buffer.length == gapEnd) { return false; }
+        if ('.' == buffer[gapEnd++]) { dotCount--; }
+        return true;
+    }
+
+    public boolean clear() {
+        if (isEmpty() && !negative) { return false; }
+        gapStart = 0;
+        gapEnd   = buffer.length;
+        dotCount = 0;
+        negative = false;
+        return true;
+    }
+
+    public boolean setNegative(final boolean negative) {
+        if (negative == this.negative) { return false; }
+        this.negative = negative;
+        return true;
+    }
+
+    public boolean moveLeft() {
+        if (0 == gapStart) { return false; }
+        buffer[--gapEnd] = buffer[--gapStart];
+        return true;
+    }
+
+    public boolean moveRight() {
+        if (buffer.length == gapEnd) { return false; }
+        buffer[gapStart++] = buffer[gapEnd++];
+        return true;
+    }
+
+    public boolean moveToStart() {
+        if (0 == gapStart) { return false; }
+        while (gapStart > 0) { moveLeft(); }
+        return true;
+    }
+
+    public boolean moveToEnd() {
+        if (buffer.length == gapEnd) { return false; }
+        while (gapEnd < buffer.length) { moveRight(); }
+        return true;
+    }
+
+    /** Returns the integer part of the value, digits that exceed the range of a long are ignored */
+    public long getLong() {
+        long value = 0;
+        for (int i = 0, n = getDigitCount() ; i < n ; i++) {
+            final char c = digitAt(i);
+            if ('.' == c) { break; }
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) { break; }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    public double getDouble() {
+        long    mantissa = 0;
+        int     scale    = 0;
+        int     digits   = 0;
+        boolean fraction = false;
+        for (int i = 0, n = getDigitCount() ; i < n ; i++) {
+            final char c = digitAt(i);
+            if ('.' == c) { fraction = true; continue; }
+            if (0 == digits && '0' == c && !fraction) { continue; }
+            // more digits than a double can represent exactly, let the JDK round correctly
+            if (++digits > 15) { return Double.parseDouble(toString()); }
+            mantissa = mantissa * 10 + (c - '0');
+            if (fraction) { scale++; }
+        }
+        if (scale >= POW10.length) { return Double.parseDouble(toString()); }
+        final double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    public BigDecimal getBigDecimal() {
+        if (0 == getDigitCount() || (1 == getDigitCount() && dotCount > 0)) { return BigDecimal.ZERO; }
+        return new BigDecimal(scratch, 0, fill(scratch));
+    }
+
+
+    // ******************** CharSequence **************************************
+    @Override public int length() { return (negative ? 1 : 0) + getDigitCount(); }
+
+    @Override public char charAt(final int index) {
+        if (negative) {
+            if (0 == index) { return '-'; }
+            return digitAt(index - 1);
+        }
+        return digitAt(index);
+    }
+
+    @Override public CharSequence subSequence(final int start, final int end) { return toString().subSequence(start, end); }
+
+    @Override public String toString() {
+        final int length = fill(scratch);
+        return new String(scratch, 0, length);
+    }
+
+    private char digitAt(final int index) {
+        if (index < 0 || index >= getDigitCount()) { throw new IndexOutOfBoundsException(index); }
+        return index < gapStart ? buffer[index] : buffer[index + gapEnd - gapStart];
+    }
+
+    private int fill(final char[] target) {
+        int length = 0;
+        if (negative) { target[length++] = '-'; }
+        System.arraycopy(buffer, 0, target, length, gapStart);
+        length += gapStart;
+        System.arraycopy(buffer, gapEnd, target, length, buffer.length - gapEnd);
+        return length + buffer.length - gapEnd;
+    }
+}
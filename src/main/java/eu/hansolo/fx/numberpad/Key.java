@@ -18,41 +18,90 @@ package eu.hansolo.fx.numberpad;
 
 import javafx.application.ConditionalFeature;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ObjectPropertyBase;
 import javafx.beans.property.StringProperty;
 import javafx.event.EventHandler;
-import javafx.event.EventType;
+import javafx.css.PseudoClass;
+import javafx.geometry.Bounds;
+import javafx.geometry.HPos;
 import javafx.geometry.VPos;
+import javafx.scene.Parent;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.TouchEvent;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 public class Key<T> extends Region {
-    private static final String                                            CSS_FILE         = "key.css";
-    private static final double                                            PREFERRED_WIDTH  = 128;
-    private static final double                                            PREFERRED_HEIGHT = 128;
-    private static final double                                            MINIMUM_WIDTH    = 16;
-    private static final double                                            MINIMUM_HEIGHT   = 16;
-    private static final double                                            MAXIMUM_WIDTH    = 1024;
-    private static final double                                            MAXIMUM_HEIGHT   = 1024;
-    private              String                                            userAgentStyleSheet;
-    private              ConcurrentHashMap<KeyEventObserver, KeyEventType> observers;
-    private              Text                                              text;
-    private              StackPane                                         pane;
-    private              double                                            size;
-    private              double                                            width;
-    private              double                                            height;
-    private              String                                            keyText;
-    private              T                                                 _metaData;
-    private              ObjectProperty<T>                                 metaData;
-    private              EventHandler<MouseEvent>                          mouseHandler;
-    private              EventHandler<TouchEvent>                          touchHandler;
+    private static final String                   CSS_FILE             = "key.css";
+    private static final String                   USER_AGENT_CSS       = Key.class.getResource(CSS_FILE).toExternalForm();
+    private static final double                   PREFERRED_WIDTH      = 128;
+    private static final double                   PREFERRED_HEIGHT     = 128;
+    private static final double                   MINIMUM_WIDTH        = 16;
+    private static final double                   MINIMUM_HEIGHT       = 16;
+    private static final double                   MAXIMUM_WIDTH        = 1024;
+    private static final double                   MAXIMUM_HEIGHT       = 1024;
+    private static final long                     DEFAULT_REPEAT_DELAY = 500;
+    private static final long                     DEFAULT_REPEAT_RATE  = 50;
+    private static final PseudoClass              HOVER_PSEUDO_CLASS   = PseudoClass.getPseudoClass("hover");
+    private static final PseudoClass              PRESSED_PSEUDO_CLASS = PseudoClass.getPseudoClass("pressed");
+    static final         double                   DISABLED_OPACITY     = 0.4;
+    // shared by all keys, the key is the source of the event
+    private static final EventHandler<MouseEvent> MOUSE_HANDLER        = e -> {
+        final Key<?> key = (Key<?>) e.getSource();
+        if (MouseEvent.MOUSE_PRESSED.equals(e.getEventType())) {
+            key.fireKeyEvent(KeyEventType.PRESSED, key.inputTime());
+        } else if (MouseEvent.MOUSE_RELEASED.equals(e.getEventType())) {
+            key.fireKeyEvent(KeyEventType.RELEASED, key.inputTime());
+        }
+    };
+    private static final EventHandler<TouchEvent> TOUCH_HANDLER        = e -> {
+        final Key<?> key = (Key<?>) e.getSource();
+        if (TouchEvent.TOUCH_PRESSED.equals(e.getEventType())) {
+            key.fireKeyEvent(KeyEventType.PRESSED, key.inputTime());
+        } else if (TouchEvent.TOUCH_RELEASED.equals(e.getEventType())) {
+            key.fireKeyEvent(KeyEventType.RELEASED, key.inputTime());
+        }
+    };
+    private volatile     ObserverRegistry         observers;
+    private              ObserverRegistry         padObservers;
+    private              KeyEvent[]               events;
+    private              Text                     text;
+    private              StackPane                pane;
+    private final        boolean                  flat;
+    private              double                   size;
+    private              double                   width;
+    private              double                   height;
+    private              Font                     font;
+    private              String                   keyText;
+    private              T                        _metaData;
+    private              ObjectProperty<T>        metaData;
+    private              boolean                  baked;
+    private              ImageView                bakedView;
+    private              KeyImageCache            bakedImages;
+    private              InvalidationListener     bakedStateListener;
+    private              InvalidationListener     bakedStyleListener;
+    private              boolean                  bakeScheduled;
+    private volatile     AsyncDispatcher          asyncDispatcher;
+    private volatile     KeyStatistics            statistics;
+    private              PressFilter              pressFilter;
+    private              boolean                  autoRepeat;
+    private              boolean                  visualPressed;
+    private              boolean                  pressFiltered;
+    private              int                      index;
+    private              long                     repeatDelayNanos;
+    private              long                     repeatRateNanos;
 
 
     // ******************** Constructors **************************************
@@ -63,33 +112,36 @@ public class Key<T> extends Region {
         this(keyText, null);
     }
     public Key(final String keyText, final T metaData) {
-        this.observers    = new ConcurrentHashMap<>();
-        this.keyText      = null == keyText ? "" : keyText;
-        this._metaData    = metaData;
-        this.mouseHandler = e -> {
-            EventType<? extends MouseEvent> type = e.getEventType();
-            if (MouseEvent.MOUSE_PRESSED.equals(type)) {
-                fireKeyEvent(new KeyEvent(Key.this, KeyEventType.PRESSED));
-            } else if (MouseEvent.MOUSE_RELEASED.equals(type)) {
-                fireKeyEvent(new KeyEvent(Key.this, KeyEventType.RELEASED));
-            }
-        };
-        this.touchHandler = e -> {
-            EventType<? extends TouchEvent> type  = e.getEventType();
-            if (TouchEvent.TOUCH_PRESSED.equals(type)) {
-                fireKeyEvent(new KeyEvent(Key.this, KeyEventType.PRESSED));
-            } else if (TouchEvent.TOUCH_RELEASED.equals(type)) {
-                fireKeyEvent(new KeyEvent(Key.this, KeyEventType.RELEASED));
-            }
-        };
-        initGraphics();
-        registerListeners();
+        this(keyText, metaData, true);
+    }
+    // Without input handling the key only fires events triggered by its parent (e.g. a NumberPad that delegates the input events)
+    Key(final String keyText, final T metaData, final boolean handleInput) {
+        this(keyText, metaData, handleInput, false, true);
+    }
+    /*
+     * Without nodes the key is compact: the text and the shape are only created once
+     * they are needed (e.g. keys that are drawn on the canvas of a NumberPad). The
+     * observers and events of a key are always created on first use.
+     * A flat key is the shape itself (style class key) with the text as its only child
+     * instead of a StackPane in between, the pad sizes its keys so they need no preferred size.
+     */
+    Key(final String keyText, final T metaData, final boolean handleInput, final boolean flat, final boolean withNodes) {
+        this.keyText          = null == keyText ? "" : keyText;
+        this._metaData        = metaData;
+        this.flat             = flat;
+        this.index            = -1;
+        this.repeatDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REPEAT_DELAY);
+        this.repeatRateNanos  = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REPEAT_RATE);
+        initGraphics(withNodes);
+        registerListeners(handleInput);
     }
 
 
     // ******************** Initialization ************************************
-    private void initGraphics() {
-        if (Double.compare(getPrefWidth(), 0.0) <= 0 || Double.compare(getPrefHeight(), 0.0) <= 0 || Double.compare(getWidth(), 0.0) <= 0 ||
+    private void initGraphics(final boolean withNodes) {
+        if (flat) {
+            getStyleClass().add("key");
+        } else if (Double.compare(getPrefWidth(), 0.0) <= 0 || Double.compare(getPrefHeight(), 0.0) <= 0 || Double.compare(getWidth(), 0.0) <= 0 ||
             Double.compare(getHeight(), 0.0) <= 0) {
             if (getPrefWidth() > 0 && getPrefHeight() > 0) {
                 setPrefSize(getPrefWidth(), getPrefHeight());
@@ -98,25 +150,48 @@ public class Key<T> extends Region {
             }
         }
 
+        if (withNodes) { createNodes(); }
+    }
+
+    private void createNodes() {
         text = new Text(keyText);
         text.setTextOrigin(VPos.CENTER);
         text.getStyleClass().add("text");
+        if (null != font) { text.setFont(font); }
+        keyText = null;
+
+        if (flat) {
+            if (isLookPressed()) { pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, true); }
+            getChildren().setAll(text);
+        } else {
+            createPane();
+        }
+    }
 
+    private void createPane() {
         pane = new StackPane(text);
         pane.getStyleClass().add("key");
+        if (isLookPressed()) { pane.pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, true); }
 
         getChildren().setAll(pane);
     }
 
-    private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
+    // Baking needs the shape as a node of its own, the flat key moves its style class and text into a pane
+    private void unflatten() {
+        getStyleClass().remove("key");
+        pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, false);
+        createPane();
+        if (width > 0 && height > 0) { pane.resizeRelocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5, width, height); }
+    }
+
+    private void registerListeners(final boolean handleInput) {
+        if (!handleInput) { return; }
         if (Platform.isSupported(ConditionalFeature.INPUT_MULTITOUCH)) {
-            addEventHandler(TouchEvent.TOUCH_PRESSED, touchHandler);
-            addEventHandler(TouchEvent.TOUCH_RELEASED, touchHandler);
+            addEventHandler(TouchEvent.TOUCH_PRESSED, TOUCH_HANDLER);
+            addEventHandler(TouchEvent.TOUCH_RELEASED, TOUCH_HANDLER);
         } else {
-            addEventHandler(MouseEvent.MOUSE_PRESSED, mouseHandler);
-            addEventHandler(MouseEvent.MOUSE_RELEASED, mouseHandler);
+            addEventHandler(MouseEvent.MOUSE_PRESSED, MOUSE_HANDLER);
+            addEventHandler(MouseEvent.MOUSE_RELEASED, MOUSE_HANDLER);
         }
     }
 
@@ -129,9 +204,20 @@ public class Key<T> extends Region {
     @Override protected double computeMaxWidth(final double HEIGHT)  { return MAXIMUM_WIDTH; }
     @Override protected double computeMaxHeight(final double WIDTH)  { return MAXIMUM_HEIGHT; }
 
-    public String getKeyText() { return text.getText(); }
-    public void setText(final String text) { this.text.setText(text); }
-    public StringProperty textProperty() { return text.textProperty(); }
+    public String getKeyText() { return null == text ? keyText : text.getText(); }
+    public void setText(final String text) {
+        if (null == this.text) {
+            keyText = null == text ? "" : text;
+            return;
+        }
+        this.text.setText(text);
+        if (null == font) { adjustTextSize(); }
+        invalidateBakedImages();
+    }
+    public StringProperty textProperty() {
+        if (null == text) { createNodes(); }
+        return text.textProperty();
+    }
 
     public T getMetaData() { return null == metaData ? _metaData : metaData.get(); }
     public void setMetaData(final T metaData) {
@@ -152,56 +238,320 @@ public class Key<T> extends Region {
         return metaData;
     }
 
-    private void adjustTextSize() {
-        if (getKeyText().length() > 3) {
-            double charWidth = width * 0.9 / getKeyText().length();
-            text.setFont(Fonts.robotoMonoRegular(charWidth * 1.66639544344996));
+    // Used by a parent (e.g. NumberPad) that computes the font for all of its keys in one
+    // layout pass, setting it to null lets the key fit the font to its own size again
+    void setFont(final Font font) {
+        this.font = font;
+        if (null == text) {
+            return;
+        } else if (null == font) {
+            adjustTextSize();
+        } else if (font != text.getFont()) {
+            text.setFont(font);
+            invalidateBakedImages();
+        }
+    }
+
+    /**
+     * In baked mode the normal, hover and pressed appearance of the key are rendered
+     * once per size and theme into images (shared between keys) and a state change
+     * only swaps the image instead of re-applying the CSS of the key.
+     */
+    public boolean isBaked() { return baked; }
+    public void setBaked(final boolean baked) {
+        if (baked == this.baked) { return; }
+        if (null == text) { createNodes(); }
+        if (null == pane) { unflatten(); }
+        this.baked = baked;
+        if (baked) {
+            if (null == bakedView) {
+                bakedView          = new ImageView();
+                bakedView.setMouseTransparent(true);
+                bakedStateListener = o -> updateBakedState();
+                bakedStyleListener = o -> invalidateBakedImages();
+            }
+            hoverProperty().addListener(bakedStateListener);
+            pressedProperty().addListener(bakedStateListener);
+            disabledProperty().addListener(bakedStateListener);
+            styleProperty().addListener(bakedStyleListener);
+            getStyleClass().addListener(bakedStyleListener);
+            getStylesheets().addListener(bakedStyleListener);
+            pane.setVisible(false);
+            getChildren().add(bakedView);
+        } else {
+            hoverProperty().removeListener(bakedStateListener);
+            pressedProperty().removeListener(bakedStateListener);
+            disabledProperty().removeListener(bakedStateListener);
+            styleProperty().removeListener(bakedStyleListener);
+            getStyleClass().removeListener(bakedStyleListener);
+            getStylesheets().removeListener(bakedStyleListener);
+            getChildren().remove(bakedView);
+            bakedView.setImage(null);
+            pane.setVisible(true);
+        }
+        bakedImages = null;
+        requestLayout();
+    }
+
+    void invalidateBakedImages() {
+        if (!baked) { return; }
+        bakedImages = null;
+        requestLayout();
+    }
+
+    void setBakedState(final int state) {
+        if (null == bakedImages) { return; }
+        bakedView.setImage(bakedImages.images[state]);
+        bakedView.relocate(bakedImages.x[state], bakedImages.y[state]);
+    }
+
+    // Position of the key in its NumberPad, -1 if it's not part of a pad
+    int getIndex() { return index; }
+    void setIndex(final int index) { this.index = index; }
+
+    // Shows the pressed look without a mouse or touch press (e.g. for a hardware keyboard)
+    void setVisualPressed(final boolean visualPressed) {
+        if (visualPressed == this.visualPressed) { return; }
+        this.visualPressed = visualPressed;
+        updatePressedLook();
+    }
+
+    // True while the PressFilter holds back or rejected the pointer press of this key, it doesn't look pressed then
+    boolean isPressFiltered() { return pressFiltered; }
+    void setPressFiltered(final boolean pressFiltered) {
+        if (pressFiltered == this.pressFiltered) { return; }
+        this.pressFiltered = pressFiltered;
+        updatePressedLook();
+    }
+
+    boolean isLookPressed() { return (isPressed() || visualPressed) && !pressFiltered; }
+
+    private void updatePressedLook() {
+        if (null == text) {
+            return;
+        } else if (baked) {
+            updateBakedState();
         } else {
-            text.setFont(Fonts.robotoMonoRegular(size * 0.5));
+            (null == pane ? this : pane).pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, isLookPressed());
+        }
+    }
+
+    private void updateBakedState() {
+        bakedView.setOpacity(isDisabled() ? DISABLED_OPACITY : 1);
+        setBakedState(isLookPressed() ? KeyImageCache.PRESSED : isHover() ? KeyImageCache.HOVER : KeyImageCache.NORMAL);
+    }
+
+    // Snapshots must not be taken in a layout pass, the key shows its live pane until the images are baked
+    private void scheduleBake() {
+        if (bakeScheduled) { return; }
+        bakeScheduled = true;
+        bakedView.setImage(null);
+        pane.setVisible(true);
+        Platform.runLater(() -> {
+            bakeScheduled = false;
+            if (baked && null == bakedImages && width > 0 && height > 0) { bake(); }
+        });
+    }
+
+    private void bake() {
+        final KeyImageCache.CacheKey cacheKey = bakedCacheKey();
+        bakedImages = KeyImageCache.get(cacheKey);
+        if (null == bakedImages) {
+            final SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+            bakedImages = new KeyImageCache();
+            pane.setVisible(true);
+            for (int state = KeyImageCache.NORMAL ; state <= KeyImageCache.PRESSED ; state++) {
+                pane.pseudoClassStateChanged(HOVER_PSEUDO_CLASS, KeyImageCache.HOVER == state);
+                pane.pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, KeyImageCache.PRESSED == state);
+                pane.applyCss();
+                pane.layout();
+                final Bounds bounds = pane.getBoundsInParent();
+                bakedImages.images[state] = pane.snapshot(parameters, null);
+                bakedImages.x[state]      = bounds.getMinX();
+                bakedImages.y[state]      = bounds.getMinY();
+            }
+            pane.pseudoClassStateChanged(HOVER_PSEUDO_CLASS, false);
+            pane.pseudoClassStateChanged(PRESSED_PSEUDO_CLASS, false);
+            pane.setVisible(false);
+            KeyImageCache.put(cacheKey, bakedImages);
+        }
+        updateBakedState();
+    }
+
+    // text, size, font and everything css related that influences the look of the key
+    private KeyImageCache.CacheKey bakedCacheKey() {
+        final List<String> style = new ArrayList<>(getStyleClass());
+        style.add(getStyle());
+        for (Parent parent = this ; null != parent ; parent = parent.getParent()) {
+            style.add("|");
+            style.addAll(parent.getStylesheets());
+        }
+        if (null != getScene()) {
+            style.add("|");
+            style.addAll(getScene().getStylesheets());
         }
+        return new KeyImageCache.CacheKey(getKeyText(), width, height, text.getFont().getSize(), style.toArray(new String[0]));
+    }
+
+    // Not private, KeyBenchmark counts the calls per layout pass
+    void adjustTextSize() {
+        if (width <= 0 || height <= 0 || null == text) { return; }
+        final double fontSize = Math.min(size * 0.5, Fonts.robotoMonoRegularFittingSize(width * 0.9, height * 0.9, getKeyText().length()));
+        final Font   font     = Fonts.robotoMonoRegular(fontSize);
+        if (font != text.getFont()) { text.setFont(font); }
     }
 
 
     // ******************** EventHandling *************************************
-    public void setOnKeyPressed(final KeyEventObserver observer) {
-        if (!observers.containsKey(observer)) { observers.put(observer, KeyEventType.PRESSED); }
+    public void setOnKeyPressed(final KeyEventObserver observer) { addObserver(observer, KeyEventType.PRESSED); }
+    public void removeOnKeyPressed(final KeyEventObserver observer) { removeObserver(observer, KeyEventType.PRESSED); }
+    public void setOnKeyReleased(final KeyEventObserver observer) { addObserver(observer, KeyEventType.RELEASED); }
+    public void removeOnKeyReleased(final KeyEventObserver observer) { removeObserver(observer, KeyEventType.RELEASED); }
+    public void setOnKeyRepeated(final KeyEventObserver observer) { addObserver(observer, KeyEventType.REPEAT); }
+    public void removeOnKeyRepeated(final KeyEventObserver observer) { removeObserver(observer, KeyEventType.REPEAT); }
+
+    public void removeAllObservers() { if (null != observers) { observers.removeAll(); } }
+
+    // Most keys never get observers of their own (e.g. in a pad that delegates the input), so the registry is created on first use
+    private synchronized void addObserver(final KeyEventObserver observer, final KeyEventType type) {
+        if (null == observer) { return; }
+        if (null == observers) { observers = new ObserverRegistry(); }
+        observers.add(observer, type);
+    }
+    private synchronized void removeObserver(final KeyEventObserver observer, final KeyEventType type) {
+        if (null != observers) { observers.remove(observer, type); }
+    }
+
+    // Filters bouncing and phantom presses before they are dispatched, null switches filtering off
+    PressFilter getPressFilter() { return pressFilter; }
+    void setPressFilter(final PressFilter pressFilter) { this.pressFilter = pressFilter; }
+
+    // Observers of the parent pad that will be notified after the observers of this key
+    void setPadObservers(final ObserverRegistry padObservers) { this.padObservers = padObservers; }
+
+    /**
+     * If an AsyncDispatcher is set, the observers will be called on its executor
+     * instead of the FX thread, null switches back to synchronous dispatching.
+     * Observers that change the scene graph must not be called asynchronously.
+     */
+    public AsyncDispatcher getAsyncDispatcher() { return asyncDispatcher; }
+    public void setAsyncDispatcher(final AsyncDispatcher asyncDispatcher) { this.asyncDispatcher = asyncDispatcher; }
+
+    /**
+     * If auto repeat is enabled, holding the key fires REPEAT events after the
+     * repeat delay (ms) with the given repeat rate (ms between two events).
+     */
+    public boolean isAutoRepeat() { return autoRepeat; }
+    public void setAutoRepeat(final boolean autoRepeat) {
+        this.autoRepeat = autoRepeat;
+        if (!autoRepeat) { KeyRepeater.release(Key.this); }
+    }
+
+    public long getRepeatDelay() { return TimeUnit.NANOSECONDS.toMillis(repeatDelayNanos); }
+    public void setRepeatDelay(final long repeatDelay) { repeatDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, repeatDelay)); }
+
+    public long getRepeatRate() { return TimeUnit.NANOSECONDS.toMillis(repeatRateNanos); }
+    public void setRepeatRate(final long repeatRate) { repeatRateNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, repeatRate)); }
+
+    long getRepeatDelayNanos() { return repeatDelayNanos; }
+    long getRepeatRateNanos() { return repeatRateNanos; }
+
+    /**
+     * If statistics are set (and enabled) the presses of this key and the latencies
+     * of its observers will be recorded, null switches recording off.
+     */
+    public KeyStatistics getStatistics() { return statistics; }
+    public void setStatistics(final KeyStatistics statistics) { this.statistics = statistics; }
+
+    // Mouse and touch input goes through the PressFilter, false if the event was not dispatched (yet)
+    boolean fireKeyEvent(final KeyEventType type) { return fireKeyEvent(type, 0); }
+    boolean fireKeyEvent(final KeyEventType type, final long inputTime) {
+        final PressFilter filter   = pressFilter;
+        final boolean     dispatch = null == filter || index < 0 || filter.accept(index, type);
+        if (KeyEventType.PRESSED == type) {
+            setPressFiltered(!dispatch);
+        } else if (KeyEventType.RELEASED == type) {
+            setPressFiltered(false);
+        }
+        if (dispatch) { processKeyEvent(type, inputTime); }
+        return dispatch;
     }
-    public void removeOnKeyPressed(final KeyEventObserver observer) { removeObserver(observer); }
-    public void setOnKeyReleased(final KeyEventObserver observer) {
-        if (!observers.containsKey(observer)) { observers.put(observer, KeyEventType.RELEASED); }
+
+    // Starts or stops the auto repeat and dispatches the event, bypasses the PressFilter (e.g. for injected or hardware keys)
+    void processKeyEvent(final KeyEventType type, final long inputTime) {
+        if (autoRepeat) {
+            if (KeyEventType.PRESSED == type) {
+                KeyRepeater.hold(Key.this);
+            } else if (KeyEventType.RELEASED == type) {
+                KeyRepeater.release(Key.this);
+            }
+        }
+        dispatchKeyEvent(type, inputTime);
+    }
+
+    // Dispatches the event to the observers without triggering the auto repeat (used for replay)
+    void dispatchKeyEvent(final KeyEventType type, final long inputTime) {
+        final KeyStatistics stats     = statistics;
+        final boolean       recording = null != stats && stats.isEnabled();
+        final long          start     = recording ? (0 == inputTime ? System.nanoTime() : inputTime) : 0;
+        final KeyEvent        evt        = event(type);
+        final AsyncDispatcher dispatcher = asyncDispatcher;
+        if (null == dispatcher) {
+            notifyObservers(evt);
+        } else {
+            dispatcher.publish(evt);
+        }
+        if (recording) {
+            if (KeyEventType.PRESSED == type) { stats.recordPress(index); }
+            stats.recordDispatch(System.nanoTime() - start);
+        }
     }
-    public void removeOnKeyReleased(final KeyEventObserver observer) { removeObserver(observer); }
 
-    public void removeAllObservers() { observers.clear(); }
-    private void removeObserver(final KeyEventObserver observer) {
-        if (observers.containsKey(observer)) { observers.remove(observer); }
+    void notifyObservers(final KeyEvent evt) {
+        final KeyStatistics    stats     = statistics;
+        final ObserverRegistry observers = this.observers;
+        if (null != observers) { observers.notifyObservers(evt, stats); }
+        if (null != padObservers) { padObservers.notifyObservers(evt, stats); }
     }
 
-    private void fireKeyEvent(final KeyEvent evt) {
-        observers.entrySet().stream().filter(o -> o.getValue() == evt.getType()).forEach(entry -> entry.getKey().onKeyEvent(evt));
+    // The events are immutable, every key creates one per type when it's fired the first time (always on the FX thread)
+    private KeyEvent event(final KeyEventType type) {
+        if (null == events) { events = new KeyEvent[KeyEventType.values().length]; }
+        KeyEvent evt = events[type.ordinal()];
+        if (null == evt) {
+            evt = new KeyEvent(Key.this, type);
+            events[type.ordinal()] = evt;
+        }
+        return evt;
     }
 
+    long inputTime() { return null == statistics ? 0 : System.nanoTime(); }
 
-    // ******************** Resizing ******************************************
-    private void resize() {
-        width  = getWidth() - getInsets().getLeft() - getInsets().getRight();
-        height = getHeight() - getInsets().getTop() - getInsets().getBottom();
-        size   = width < height ? width : height;
 
-        if (width > 0 && height > 0) {
-            pane.setMinSize(width, height);
-            pane.setMaxSize(width, height);
-            pane.setPrefSize(width, height);
-            pane.relocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5);
+    // ******************** Resizing ******************************************
+    @Override protected void layoutChildren() {
+        if (null == text) { createNodes(); }
+        final double newWidth  = getWidth() - getInsets().getLeft() - getInsets().getRight();
+        final double newHeight = getHeight() - getInsets().getTop() - getInsets().getBottom();
+        if (Double.compare(newWidth, width) != 0 || Double.compare(newHeight, height) != 0) {
+            width       = newWidth;
+            height      = newHeight;
+            size        = width < height ? width : height;
+            bakedImages = null;
 
-            adjustTextSize();
+            if (width > 0 && height > 0) {
+                if (null != pane) { pane.resizeRelocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5, width, height); }
+                if (null == font) { adjustTextSize(); }
+            }
         }
+        if (null == pane && width > 0 && height > 0) {
+            layoutInArea(text, getInsets().getLeft(), getInsets().getTop(), width, height, 0, HPos.CENTER, VPos.CENTER);
+        }
+        if (baked && null == bakedImages && width > 0 && height > 0) { scheduleBake(); }
     }
 
 
     // ******************** Style related *************************************
-    @Override public String getUserAgentStylesheet() {
-        if (null == userAgentStyleSheet) { userAgentStyleSheet = Key.class.getResource(CSS_FILE).toExternalForm(); }
-        return userAgentStyleSheet;
-    }
+    @Override public String getUserAgentStylesheet() { return USER_AGENT_CSS; }
 }
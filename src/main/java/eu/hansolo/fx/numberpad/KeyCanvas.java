@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.ConditionalFeature;
+import javafx.application.Platform;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.List;
+
+
+/**
+ * Draws all keys of a NumberPad on one Canvas. The keys are still used as model
+ * (text, metaData and observers) but they are not part of the scene graph. Presses
+ * are hit-tested against the cells of the KeyLayout and only the key whose state changed
+ * will be redrawn.
+ */
+class KeyCanvas extends Canvas {
+    private static final int                      NORMAL      = 0;
+    private static final int                      HOVER       = 1;
+    private static final int                      PRESSED     = 2;
+    private static final double[]                 RADII       = { 5, 4, 3, 2 };
+    private static final double                   SHADOW      = 2;
+    private static final Color                    SHADOW_FILL = Color.rgb(0, 0, 0, 0.5);
+    private static final Color                    TEXT_FILL   = Color.WHITE;
+    private static final Paint[][]                LAYERS      = {
+        { Color.BLACK,
+          gradient(0, "#9b9d9f", 0.01, "#606467", 0.5, "#535759", 1, "#3d4144"),
+          Color.web("#555b5e"),
+          gradient(0, "#4c5154", 1, "#666b6e") },
+        { Color.BLACK,
+          gradient(0, derive("#9b9d9f"), 0.01, derive("#606467"), 0.5, derive("#535759"), 1, derive("#3d4144")),
+          Color.web(derive("#555b5e")),
+          gradient(0, derive("#4c5154"), 1, derive("#666b6e")) },
+        { Color.BLACK,
+          gradient(0, "#4c4e4f", 0.01, "#323435", 0.5, "#292c2c", 1, "#1e2122"),
+          Color.web("#2a2e2f"),
+          gradient(0, "#25292a", 1, "#323637") }
+    };
+    private final        List<Key>                keys;
+    private final        KeyLayout                layout;
+    private final        double[]                 keyX;
+    private final        double[]                 keyY;
+    private final        double[]                 keyWidth;
+    private final        double[]                 keyHeight;
+    private final        GraphicsContext          ctx;
+    private              Font[]                   fonts;
+    private              double                   cellWidth;
+    private              double                   cellHeight;
+    private              double                   horizontalGap;
+    private              double                   verticalGap;
+    private final        boolean[]                pressed;
+    private              int                      pressedIndex;
+    private              int                      hoverIndex;
+    private              EventHandler<MouseEvent> mouseHandler;
+
+
+    // ******************** Constructors **************************************
+    KeyCanvas(final List<Key> keys, final KeyLayout layout) {
+        this.keys         = keys;
+        this.layout       = layout;
+        this.keyX         = new double[keys.size()];
+        this.keyY         = new double[keys.size()];
+        this.keyWidth     = new double[keys.size()];
+        this.keyHeight    = new double[keys.size()];
+        this.fonts        = new Font[keys.size()];
+        this.pressed      = new boolean[keys.size()];
+        this.ctx          = getGraphicsContext2D();
+        this.pressedIndex = -1;
+        this.hoverIndex   = -1;
+        this.mouseHandler = e -> {
+            EventType<? extends MouseEvent> type = e.getEventType();
+            if (MouseEvent.MOUSE_PRESSED.equals(type)) {
+                press(keyIndexAt(e.getX(), e.getY()));
+            } else if (MouseEvent.MOUSE_RELEASED.equals(type)) {
+                release();
+            } else if (MouseEvent.MOUSE_MOVED.equals(type)) {
+                hover(keyIndexAt(e.getX(), e.getY()));
+            } else if (MouseEvent.MOUSE_EXITED.equals(type)) {
+                hover(-1);
+            }
+        };
+        registerListeners();
+    }
+
+
+    // ******************** Initialization ************************************
+    private void registerListeners() {
+        // touch points are tracked by the NumberPad
+        if (!Platform.isSupported(ConditionalFeature.INPUT_MULTITOUCH)) {
+            addEventHandler(MouseEvent.MOUSE_PRESSED, mouseHandler);
+            addEventHandler(MouseEvent.MOUSE_RELEASED, mouseHandler);
+            addEventHandler(MouseEvent.MOUSE_MOVED, mouseHandler);
+            addEventHandler(MouseEvent.MOUSE_EXITED, mouseHandler);
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public boolean isResizable() { return false; }
+
+    void layoutKeys(final double width, final double height, final double cellWidth, final double cellHeight, final double horizontalGap, final double verticalGap, final Font[] fonts) {
+        this.cellWidth     = cellWidth;
+        this.cellHeight    = cellHeight;
+        this.horizontalGap = horizontalGap;
+        this.verticalGap   = verticalGap;
+        this.fonts         = fonts;
+        setWidth(width);
+        setHeight(height);
+        for (int i = 0 ; i < keys.size() ; i++) {
+            final int columnSpan = layout.getColumnSpan(i);
+            final int rowSpan    = layout.getRowSpan(i);
+            keyX[i]      = layout.getColumn(i) * (cellWidth + horizontalGap);
+            keyY[i]      = layout.getRow(i) * (cellHeight + verticalGap);
+            keyWidth[i]  = columnSpan * cellWidth + (columnSpan - 1) * horizontalGap;
+            keyHeight[i] = rowSpan * cellHeight + (rowSpan - 1) * verticalGap;
+        }
+        redraw();
+    }
+
+    void redraw() {
+        ctx.clearRect(0, 0, getWidth(), getHeight());
+        for (int i = 0 ; i < keys.size() ; i++) { drawKey(i); }
+    }
+
+    // Returns -1 for gaps and empty cells
+    int keyIndexAt(final double x, final double y) { return layout.keyIndexAt(x, y, cellWidth, cellHeight, horizontalGap, verticalGap); }
+
+    void redrawKey(final int index) {
+        if (index >= 0) { drawKey(index); }
+    }
+
+    // Pressed state set from outside the canvas (e.g. a hardware keyboard), only redraws the key
+    void setPressed(final int index, final boolean pressed) {
+        if (index < 0 || this.pressed[index] == pressed) { return; }
+        this.pressed[index] = pressed;
+        drawKey(index);
+    }
+
+    private void press(final int index) {
+        if (index < 0 || keys.get(index).isDisabled()) { return; }
+        if (pressedIndex >= 0) { release(); }
+        pressedIndex = index;
+        // the key is drawn pressed once the PressFilter dispatched its press
+        final Key key = keys.get(index);
+        key.fireKeyEvent(KeyEventType.PRESSED, key.inputTime());
+        setPressed(index, true);
+    }
+
+    private void release() {
+        if (pressedIndex < 0) { return; }
+        final int index = pressedIndex;
+        pressedIndex = -1;
+        final Key key = keys.get(index);
+        key.fireKeyEvent(KeyEventType.RELEASED, key.inputTime());
+        setPressed(index, false);
+    }
+
+    private void hover(final int index) {
+        if (index == hoverIndex) { return; }
+        final int lastHoverIndex = hoverIndex;
+        hoverIndex = index;
+        if (lastHoverIndex >= 0) { drawKey(lastHoverIndex); }
+        if (index >= 0) { drawKey(index); }
+    }
+
+    private void drawKey(final int index) {
+        final double x       = keyX[index];
+        final double y       = keyY[index];
+        final double w       = keyWidth[index];
+        final double h       = keyHeight[index] - SHADOW;
+        final int    state   = pressed[index] && !keys.get(index).isPressFiltered() ? PRESSED : index == hoverIndex ? HOVER : NORMAL;
+        final double offsetY = PRESSED == state ? 0 : SHADOW;
+        if (w <= 0 || h <= 0) { return; }
+
+        ctx.clearRect(x, y, w, keyHeight[index]);
+        ctx.setGlobalAlpha(keys.get(index).isDisabled() ? Key.DISABLED_OPACITY : 1);
+
+        ctx.setFill(SHADOW_FILL);
+        ctx.fillRoundRect(x, y + offsetY, w, h, RADII[0] * 2, RADII[0] * 2);
+
+        final Paint[] layers = LAYERS[state];
+        for (int i = 0 ; i < layers.length ; i++) {
+            ctx.setFill(layers[i]);
+            ctx.fillRoundRect(x + i, y + i, w - 2 * i, h - 2 * i, RADII[i] * 2, RADII[i] * 2);
+        }
+
+        final Font font = fonts[index];
+        if (null != font) {
+            ctx.setFont(font);
+            ctx.setFill(TEXT_FILL);
+            ctx.setTextAlign(TextAlignment.CENTER);
+            ctx.setTextBaseline(VPos.CENTER);
+            ctx.fillText(keys.get(index).getKeyText(), x + w * 0.5, y + h * 0.5 + (PRESSED == state ? 1 : 0));
+        }
+    }
+
+    private static LinearGradient gradient(final Object... offsetsAndColors) {
+        final Stop[] stops = new Stop[offsetsAndColors.length / 2];
+        for (int i = 0 ; i < stops.length ; i++) {
+            stops[i] = new Stop(((Number) offsetsAndColors[i * 2]).doubleValue(), Color.web((String) offsetsAndColors[i * 2 + 1]));
+        }
+        return new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE, stops);
+    }
+
+    // Same as derive(color, 15%) in key.css
+    private static String derive(final String color) {
+        final Color c = Color.web(color).interpolate(Color.WHITE, 0.15);
+        return String.format("#%02x%02x%02x", (int) Math.round(c.getRed() * 255), (int) Math.round(c.getGreen() * 255), (int) Math.round(c.getBlue() * 255));
+    }
+}
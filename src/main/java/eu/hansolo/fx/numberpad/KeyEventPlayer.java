@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.animation.AnimationTimer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+
+/**
+ * Replays a recording of a KeyEventRecorder into the dispatch path of the keys
+ * of a NumberPad, either as fast as possible (replayAll) or with the original
+ * timing driven by the pulse (play). Replayed events don't trigger the auto repeat
+ * of the keys because the recorded REPEAT events are replayed as well.
+ * The records are validated when the recording is opened, records that were cut
+ * off at the end of the file are ignored.
+ */
+public class KeyEventPlayer implements Closeable {
+    private static final KeyEventType[]   TYPES = KeyEventType.values();
+    private final        FileChannel      channel;
+    private final        MappedByteBuffer buffer;
+    private final        long             count;
+    private              AnimationTimer   timer;
+
+
+    // ******************** Constructors **************************************
+    public KeyEventPlayer(final Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer  = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() < KeyEventRecorder.HEADER_SIZE || KeyEventRecorder.MAGIC != buffer.getInt(0) || KeyEventRecorder.RECORD_SIZE != buffer.getInt(4)) {
+            channel.close();
+            throw new IOException("Not a KeyEvent recording: " + path);
+        }
+        this.count = Math.min(buffer.getLong(KeyEventRecorder.COUNT_OFFSET), (channel.size() - KeyEventRecorder.HEADER_SIZE) / KeyEventRecorder.RECORD_SIZE);
+        for (long i = 0 ; i < count ; i++) {
+            final int type = buffer.get(offset(i) + 10);
+            if (type < 0 || type >= TYPES.length) {
+                channel.close();
+                throw new IOException("Corrupt KeyEvent recording " + path + ": invalid event type " + type + " in record " + i);
+            }
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    public long getEventCount() { return count; }
+
+    public long getTimestamp(final long event) { return buffer.getLong(offset(event)); }
+
+    public int getKeyIndex(final long event) { return buffer.getShort(offset(event) + 8); }
+
+    public KeyEventType getType(final long event) { return TYPES[buffer.get(offset(event) + 10)]; }
+
+    public int getKeyCode(final long event) { return buffer.getInt(offset(event) + 12); }
+
+    /** Replays all events on the calling thread as fast as possible and returns the number of dispatched events */
+    public long replayAll(final NumberPad numberPad) {
+        final List<Key> keys       = numberPad.getKeys();
+        final int       keyCount   = keys.size();
+        long            dispatched = 0;
+        for (long i = 0 ; i < count ; i++) {
+            final int offset = offset(i);
+            final int index  = buffer.getShort(offset + 8);
+            if (index < 0 || index >= keyCount) { continue; }
+            keys.get(index).dispatchKeyEvent(TYPES[buffer.get(offset + 10)], 0);
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    /** Replays the events with their original timing on the FX thread, onFinished will be called at the end */
+    public void play(final NumberPad numberPad, final Runnable onFinished) {
+        stop();
+        if (0 == count) {
+            if (null != onFinished) { onFinished.run(); }
+            return;
+        }
+        final List<Key> keys      = numberPad.getKeys();
+        final long      firstTime = getTimestamp(0);
+        timer = new AnimationTimer() {
+            private long start = -1;
+            private long next  = 0;
+
+            @Override public void handle(final long now) {
+                if (start < 0) { start = now; }
+                final long elapsed = now - start;
+                while (next < count && getTimestamp(next) - firstTime <= elapsed) {
+                    final int index = getKeyIndex(next);
+                    if (index >= 0 && index < keys.size()) { keys.get(index).dispatchKeyEvent(getType(next), 0); }
+                    next++;
+                }
+                if (next == count) {
+                    stop();
+                    timer = null;
+                    if (null != onFinished) { onFinished.run(); }
+                }
+            }
+        };
+        timer.start();
+    }
+
+    public void stop() {
+        if (null == timer) { return; }
+        timer.stop();
+        timer = null;
+    }
+
+    @Override public void close() throws IOException {
+        stop();
+        channel.close();
+    }
+
+    private int offset(final long event) { return (int) (KeyEventRecorder.HEADER_SIZE + event * KeyEventRecorder.RECORD_SIZE); }
+}
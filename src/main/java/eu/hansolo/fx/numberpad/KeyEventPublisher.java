@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Publishes the KeyEvents of all keys of a NumberPad as java.util.concurrent.Flow.
+ * Every subscriber has its own bounded ring buffer that is filled on the FX thread
+ * and drained on the executor as far as the subscriber has requested, if the buffer
+ * is full the OverflowPolicy decides what happens (like in AsyncDispatcher), except
+ * for BLOCK: the FX thread never waits for the demand of a subscriber, a subscriber
+ * whose buffer is full fails with an IllegalStateException (onError) instead.
+ * COALESCE drops the new event (or batch) only if it repeats the newest pending event
+ * (same key and type), otherwise it drops the oldest pending event (or batch).
+ * Subscribers of batched() get all events of one pulse in one array, which saves a
+ * thread hop per event. The publisher is only registered on the pad while it has
+ * subscribers, cancelling the last subscription removes it from all keys.
+ */
+public class KeyEventPublisher implements Flow.Publisher<KeyEvent> {
+    private static final BufferedSubscription<?>[] NO_SUBSCRIPTIONS = {};
+    private final        NumberPad                 numberPad;
+    private final        Executor                  executor;
+    private final        int                       capacity;
+    private final        OverflowPolicy            overflowPolicy;
+    private final        KeyEventObserver          observer;
+    private final        AtomicLong                droppedEvents;
+    private volatile     BufferedSubscription<?>[] subscriptions;
+    private              KeySubscription[]         keySubscriptions;
+    private              AnimationTimer            flushTimer;
+    private              boolean                   flushing;
+    private volatile     boolean                   closed;
+
+
+    // ******************** Constructors **************************************
+    KeyEventPublisher(final NumberPad numberPad, final Executor executor, final int capacity, final OverflowPolicy overflowPolicy) {
+        if (null == executor) { throw new IllegalArgumentException("executor must not be null"); }
+        if (capacity < 2) { throw new IllegalArgumentException("capacity must be >= 2"); }
+        this.numberPad      = numberPad;
+        this.executor       = executor;
+        this.capacity       = Integer.highestOneBit(capacity - 1) << 1;
+        this.overflowPolicy = null == overflowPolicy ? OverflowPolicy.DROP_OLDEST : overflowPolicy;
+        this.observer       = this::onKeyEvent;
+        this.droppedEvents  = new AtomicLong();
+        this.subscriptions  = NO_SUBSCRIPTIONS;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void subscribe(final Flow.Subscriber<? super KeyEvent> subscriber) {
+        if (null == subscriber) { throw new NullPointerException("subscriber must not be null"); }
+        add(new EventSubscription(subscriber));
+    }
+
+    /**
+     * Returns a publisher of the same events that delivers them in arrays of at most
+     * maxBatchSize events, one array per pulse (or more if a pulse had more events).
+     * The demand of its subscribers is counted in arrays.
+     */
+    public Flow.Publisher<KeyEvent[]> batched(final int maxBatchSize) {
+        if (maxBatchSize < 1) { throw new IllegalArgumentException("maxBatchSize must be > 0"); }
+        return subscriber -> {
+            if (null == subscriber) { throw new NullPointerException("subscriber must not be null"); }
+            add(new BatchSubscription(subscriber, maxBatchSize));
+        };
+    }
+
+    public int getCapacity() { return capacity; }
+
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+
+    public Executor getExecutor() { return executor; }
+
+    public int getSubscriberCount() { return subscriptions.length; }
+
+    // The number of events (or batches) that were dropped because a buffer was full
+    public long getDroppedEvents() { return droppedEvents.get(); }
+
+    public boolean isClosed() { return closed; }
+
+    /**
+     * Removes the publisher from the pad and completes all subscribers after they
+     * received the events that are still buffered. Must be called on the FX thread.
+     */
+    public void close() {
+        final BufferedSubscription<?>[] current;
+        synchronized (this) {
+            if (closed) { return; }
+            closed        = true;
+            current       = subscriptions;
+            subscriptions = NO_SUBSCRIPTIONS;
+            disconnect();
+        }
+        for (BufferedSubscription<?> subscription : current) {
+            subscription.flush();
+            subscription.complete();
+        }
+        stopFlushTimer();
+    }
+
+    // Called on the FX thread for every event of the pad
+    private void onKeyEvent(final KeyEvent evt) {
+        boolean pending = false;
+        for (BufferedSubscription<?> subscription : subscriptions) { pending |= subscription.onKeyEvent(evt); }
+        if (pending && !flushing) {
+            if (null == flushTimer) {
+                flushTimer = new AnimationTimer() {
+                    @Override public void handle(final long now) { flush(); }
+                };
+            }
+            flushing = true;
+            flushTimer.start();
+        }
+    }
+
+    // Hands the events of the last pulse to the batch subscribers
+    private void flush() {
+        for (BufferedSubscription<?> subscription : subscriptions) { subscription.flush(); }
+        stopFlushTimer();
+    }
+
+    private void stopFlushTimer() {
+        if (!flushing) { return; }
+        flushing = false;
+        flushTimer.stop();
+    }
+
+    private void add(final BufferedSubscription<?> subscription) {
+        subscription.subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (!closed) {
+                if (subscription.cancelled) { return; }
+                final BufferedSubscription<?>[] newSubscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                newSubscriptions[subscriptions.length] = subscription;
+                subscriptions = newSubscriptions;
+                if (null == keySubscriptions) { connect(); }
+                return;
+            }
+        }
+        subscription.complete();
+    }
+
+    private synchronized void remove(final BufferedSubscription<?> subscription) {
+        for (int i = 0 ; i < subscriptions.length ; i++) {
+            if (subscriptions[i] == subscription) {
+                if (1 == subscriptions.length) {
+                    subscriptions = NO_SUBSCRIPTIONS;
+                    disconnect();
+                } else {
+                    final BufferedSubscription<?>[] newSubscriptions = new BufferedSubscription<?>[subscriptions.length - 1];
+                    System.arraycopy(subscriptions, 0, newSubscriptions, 0, i);
+                    System.arraycopy(subscriptions, i + 1, newSubscriptions, i, subscriptions.length - i - 1);
+                    subscriptions = newSubscriptions;
+                }
+                return;
+            }
+        }
+    }
+
+    private void connect() {
+        final KeyEventType[] types = KeyEventType.values();
+        keySubscriptions = new KeySubscription[types.length];
+        for (int i = 0 ; i < types.length ; i++) { keySubscriptions[i] = numberPad.subscribe(types[i], observer); }
+    }
+
+    private void disconnect() {
+        if (null == keySubscriptions) { return; }
+        for (KeySubscription keySubscription : keySubscriptions) { keySubscription.unsubscribe(); }
+        keySubscriptions = null;
+    }
+
+
+    // ******************** Inner Classes *************************************
+    /**
+     * The buffer and demand of one subscriber. The FX thread is the only producer,
+     * the drain task on the executor the only consumer and there is never more than
+     * one drain task running, so the subscriber is called sequentially.
+     */
+    private abstract class BufferedSubscription<T> implements Flow.Subscription {
+        private final    Flow.Subscriber<? super T> subscriber;
+        private final    RingBuffer<T>              buffer;
+        private final    AtomicLong                 demand;
+        private final    AtomicBoolean              scheduled;
+        private final    Runnable                   drainTask;
+        private volatile boolean                    cancelled;
+        private volatile boolean                    completed;
+        private volatile Throwable                  error;
+
+
+        BufferedSubscription(final Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            this.buffer     = new RingBuffer<>(capacity);
+            this.demand     = new AtomicLong();
+            this.scheduled  = new AtomicBoolean();
+            this.drainTask  = this::drain;
+        }
+
+
+        // Returns true if events are waiting for the next flush()
+        abstract boolean onKeyEvent(KeyEvent evt);
+
+        void flush() { }
+
+        // True if the item only repeats the given pending item, so COALESCE can drop it
+        abstract boolean repeats(T pending, T item);
+
+        @Override public void request(final long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be > 0 but was " + n);
+            } else {
+                long d;
+                do {
+                    d = demand.get();
+                    if (Long.MAX_VALUE == d) { break; }
+                } while (!demand.compareAndSet(d, d + n < 0 ? Long.MAX_VALUE : d + n));
+            }
+            schedule();
+        }
+
+        @Override public void cancel() {
+            if (cancelled) { return; }
+            cancelled = true;
+            remove(this);
+        }
+
+        void complete() {
+            completed = true;
+            schedule();
+        }
+
+        // Single producer: must always be called from the FX thread, never waits for the subscriber
+        void offer(final T item) {
+            if (cancelled || null != error) { return; }
+            while (!buffer.offer(item)) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST:
+                        if (buffer.dropOldest()) { droppedEvents.incrementAndGet(); }
+                        break;
+                    case COALESCE:
+                        if (repeats(buffer.peekNewest(), item)) {
+                            droppedEvents.incrementAndGet();
+                            return;
+                        }
+                        if (buffer.dropOldest()) { droppedEvents.incrementAndGet(); }
+                        break;
+                    case BLOCK:
+                    default:
+                        droppedEvents.incrementAndGet();
+                        error = new IllegalStateException("Subscriber didn't request the " + buffer.getCapacity() + " buffered items");
+                        schedule();
+                        return;
+                }
+            }
+            if (demand.get() > 0) { schedule(); }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(drainTask);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private boolean hasWork() {
+            if (cancelled) { return false; }
+            final boolean empty = buffer.isEmpty();
+            return null != error || (completed && empty) || (!empty && demand.get() > 0);
+        }
+
+        private void drain() {
+            do {
+                T item;
+                while (!cancelled && null == error && demand.get() > 0 && null != (item = buffer.poll())) {
+                    long d;
+                    do {
+                        d = demand.get();
+                    } while (Long.MAX_VALUE != d && !demand.compareAndSet(d, d - 1));
+                    try {
+                        subscriber.onNext(item);
+                    } catch (Throwable t) {
+                        cancel();
+                    }
+                }
+                if (!cancelled) {
+                    final Throwable e = error;
+                    if (null != e) {
+                        cancel();
+                        subscriber.onError(e);
+                    } else if (completed && buffer.isEmpty()) {
+                        cancel();
+                        subscriber.onComplete();
+                    }
+                }
+                scheduled.set(false);
+            } while (hasWork() && scheduled.compareAndSet(false, true));
+        }
+    }
+
+    private class EventSubscription extends BufferedSubscription<KeyEvent> {
+        EventSubscription(final Flow.Subscriber<? super KeyEvent> subscriber) { super(subscriber); }
+
+        @Override boolean onKeyEvent(final KeyEvent evt) {
+            offer(evt);
+            return false;
+        }
+
+        @Override boolean repeats(final KeyEvent pending, final KeyEvent evt) {
+            return null != pending && pending.getKey() == evt.getKey() && pending.getType() == evt.getType();
+        }
+    }
+
+    private class BatchSubscription extends BufferedSubscription<KeyEvent[]> {
+        private final KeyEvent[] pending;
+        private       int        count;
+
+
+        BatchSubscription(final Flow.Subscriber<? super KeyEvent[]> subscriber, final int maxBatchSize) {
+            super(subscriber);
+            this.pending = new KeyEvent[maxBatchSize];
+        }
+
+
+        @Override boolean onKeyEvent(final KeyEvent evt) {
+            pending[count++] = evt;
+            if (count == pending.length) { flush(); }
+            return count > 0;
+        }
+
+        // A batch repeats the pending one if all of its events repeat the last pending event
+        @Override boolean repeats(final KeyEvent[] pending, final KeyEvent[] batch) {
+            if (null == pending) { return false; }
+            final KeyEvent last = pending[pending.length - 1];
+            for (KeyEvent evt : batch) {
+                if (evt.getKey() != last.getKey() || evt.getType() != last.getType()) { return false; }
+            }
+            return true;
+        }
+
+        @Override void flush() {
+            if (0 == count) { return; }
+            offer(Arrays.copyOf(pending, count));
+            Arrays.fill(pending, 0, count, null);
+            count = 0;
+        }
+    }
+}
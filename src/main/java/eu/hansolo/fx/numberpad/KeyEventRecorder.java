@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Records the KeyEvents of a NumberPad into a memory-mapped file with fixed-width
+ * records, so recording doesn't allocate and doesn't block on I/O.
+ * File layout (little endian):
+ * header : int magic, int record size, long number of records
+ * record : long timestamp (ns), short key index, byte KeyEventType ordinal, byte reserved, int KeyCode code (or -1)
+ * The file is pre-sized for the given maximum number of events, further events
+ * will be counted as dropped.
+ */
+public class KeyEventRecorder implements Closeable {
+    static final         int              MAGIC        = 0x4E505231; // NPR1
+    static final         int              HEADER_SIZE  = 16;
+    static final         int              RECORD_SIZE  = 16;
+    static final         int              COUNT_OFFSET = 8;
+    private final        FileChannel      channel;
+    private final        MappedByteBuffer buffer;
+    private final        long             maxEvents;
+    private final        KeyEventObserver pressedObserver;
+    private final        KeyEventObserver releasedObserver;
+    private final        KeyEventObserver repeatedObserver;
+    private              NumberPad        numberPad;
+    private              long             count;
+    private              long             droppedEvents;
+
+
+    // ******************** Constructors **************************************
+    public KeyEventRecorder(final Path path, final int maxEvents) throws IOException {
+        if (maxEvents < 1) { throw new IllegalArgumentException("maxEvents must be > 0"); }
+        this.maxEvents        = Math.min(maxEvents, (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+        this.channel          = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer           = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + this.maxEvents * RECORD_SIZE);
+        this.pressedObserver  = this::record;
+        this.releasedObserver = this::record;
+        this.repeatedObserver = this::record;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, RECORD_SIZE);
+        buffer.putLong(COUNT_OFFSET, 0);
+    }
+
+
+    // ******************** Methods *******************************************
+    public void start(final NumberPad numberPad) {
+        stop();
+        this.numberPad = numberPad;
+        numberPad.setOnKeyPressed(pressedObserver);
+        numberPad.setOnKeyReleased(releasedObserver);
+        numberPad.setOnKeyRepeated(repeatedObserver);
+    }
+
+    public void stop() {
+        if (null == numberPad) { return; }
+        numberPad.removeOnKeyPressed(pressedObserver);
+        numberPad.removeOnKeyReleased(releasedObserver);
+        numberPad.removeOnKeyRepeated(repeatedObserver);
+        numberPad = null;
+    }
+
+    public long getRecordedEvents() { return count; }
+
+    public long getDroppedEvents() { return droppedEvents; }
+
+    @Override public void close() throws IOException {
+        stop();
+        buffer.force();
+        channel.close();
+    }
+
+    void record(final KeyEvent evt) {
+        if (count == maxEvents) {
+            droppedEvents++;
+            return;
+        }
+        final Key    key      = evt.getKey();
+        final Object metaData = key.getMetaData();
+        final int    offset   = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        buffer.putLong(offset, System.nanoTime());
+        buffer.putShort(offset + 8, (short) key.getIndex());
+        buffer.put(offset + 10, (byte) evt.getType().ordinal());
+        buffer.put(offset + 11, (byte) 0);
+        buffer.putInt(offset + 12, metaData instanceof KeyCode ? ((KeyCode) metaData).getCode() : -1);
+        count++;
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+}
@@ -17,5 +17,5 @@
 package eu.hansolo.fx.numberpad;
 
 public enum KeyEventType {
-    PRESSED, RELEASED
+    PRESSED, RELEASED, REPEAT
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Shared LRU cache of the pre-rasterized (baked) normal, hover and pressed images
+ * of keys. Keys with the same text, size, font and theme share one set of images,
+ * e.g. the same key in several number pads.
+ */
+class KeyImageCache {
+    static final         int                        NORMAL      = 0;
+    static final         int                        HOVER       = 1;
+    static final         int                        PRESSED     = 2;
+    private static final int                        MAX_ENTRIES = 256;
+    private static final Map<CacheKey, KeyImageCache> CACHE       = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(final Map.Entry<CacheKey, KeyImageCache> eldest) { return size() > MAX_ENTRIES; }
+    };
+    final                Image[]                      images;
+    final                double[]                     x;
+    final                double[]                     y;
+
+
+    // ******************** Constructors **************************************
+    KeyImageCache() {
+        images = new Image[3];
+        x      = new double[3];
+        y      = new double[3];
+    }
+
+
+    // ******************** Methods *******************************************
+    static KeyImageCache get(final CacheKey key) {
+        synchronized (CACHE) { return CACHE.get(key); }
+    }
+
+    static void put(final CacheKey key, final KeyImageCache images) {
+        synchronized (CACHE) { CACHE.put(key, images); }
+    }
+
+    static void clear() {
+        synchronized (CACHE) { CACHE.clear(); }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    // Text, size, font size and the style classes, inline style and stylesheets that influence the look of a key
+    static final class CacheKey {
+        private final String   text;
+        private final double   width;
+        private final double   height;
+        private final double   fontSize;
+        private final String[] style;
+        private final int      hash;
+
+        CacheKey(final String text, final double width, final double height, final double fontSize, final String[] style) {
+            this.text     = text;
+            this.width    = width;
+            this.height   = height;
+            this.fontSize = fontSize;
+            this.style    = style;
+            int h = text.hashCode();
+            h = 31 * h + Double.hashCode(width);
+            h = 31 * h + Double.hashCode(height);
+            h = 31 * h + Double.hashCode(fontSize);
+            this.hash = 31 * h + Arrays.hashCode(style);
+        }
+
+        @Override public boolean equals(final Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof CacheKey)) { return false; }
+            final CacheKey other = (CacheKey) o;
+            return hash == other.hash && Double.compare(width, other.width) == 0 && Double.compare(height, other.height) == 0 &&
+                   Double.compare(fontSize, other.fontSize) == 0 && text.equals(other.text) && Arrays.equals(style, other.style);
+        }
+
+        @Override public int hashCode() { return hash; }
+    }
+}
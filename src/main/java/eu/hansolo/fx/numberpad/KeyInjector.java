@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.input.KeyCode;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Presses keys of a NumberPad on behalf of other threads (e.g. a barcode scanner).
+ * The indices of the injected keys are put into a bounded lock-free multi producer
+ * queue (a ring buffer with one sequence number per slot) that is drained once per
+ * pulse on the FX thread. Only the first key of a burst costs a Platform.runLater()
+ * to start the timer, which stops again when the queue is empty. Every injected key
+ * is pressed and released through the normal observer path, it keeps its pressed
+ * look until the next pulse.
+ */
+final class KeyInjector extends AnimationTimer {
+    static final         int                   DEFAULT_CAPACITY = 256;
+    private final        NumberPad             numberPad;
+    private final        AtomicLongArray       sequences;
+    private final        int[]                 keyIndices;
+    private final        int                   mask;
+    private final        AtomicLong            tail;
+    private final        AtomicBoolean         scheduled;
+    private final        Runnable              startTask;
+    private volatile     EnumMap<KeyCode, Key> index;
+    private              long                  head;
+    private              Key[]                 shown;
+    private              int                   shownCount;
+
+
+    // ******************** Constructors **************************************
+    KeyInjector(final NumberPad numberPad, final int capacity) {
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.numberPad  = numberPad;
+        this.sequences  = new AtomicLongArray(size);
+        this.keyIndices = new int[size];
+        this.mask       = size - 1;
+        this.tail       = new AtomicLong();
+        this.scheduled  = new AtomicBoolean();
+        this.startTask  = this::start;
+        this.shown      = new Key[8];
+        for (int i = 0 ; i < size ; i++) { sequences.set(i, i); }
+        reindex();
+    }
+
+
+    // ******************** Methods *******************************************
+    // Rebuilds the KeyCode index, needed if the metaData of the keys was changed
+    void reindex() { index = KeyboardBridge.createIndex(numberPad.getKeys()); }
+
+    // Can be called from any thread, false if the pad has no key for the KeyCode or the queue is full
+    boolean inject(final KeyCode keyCode) {
+        final Key key = null == keyCode ? null : index.get(keyCode);
+        if (null == key) { return false; }
+        while (true) {
+            final long t        = tail.get();
+            final int  slot     = (int) (t & mask);
+            final long sequence = sequences.get(slot);
+            if (sequence == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    keyIndices[slot] = key.getIndex();
+                    // publishes the key index to the FX thread
+                    sequences.set(slot, t + 1);
+                    break;
+                }
+            } else if (sequence < t) {
+                return false;
+            }
+        }
+        if (scheduled.compareAndSet(false, true)) { Platform.runLater(startTask); }
+        return true;
+    }
+
+    @Override public void handle(final long now) {
+        // the keys of the last pulse have been rendered pressed, release their look
+        for (int i = 0 ; i < shownCount ; i++) {
+            numberPad.setKeyPressedLook(shown[i], false);
+            shown[i] = null;
+        }
+        shownCount = 0;
+
+        final List<Key> keys = numberPad.getKeys();
+        int slot;
+        while (sequences.get(slot = (int) (head & mask)) == head + 1) {
+            final Key key = keys.get(keyIndices[slot]);
+            sequences.set(slot, head + keyIndices.length);
+            head++;
+            if (key.isDisabled()) { continue; }
+            numberPad.setKeyPressedLook(key, true);
+            // injected keys bypass the PressFilter, press and release arrive in the same pulse
+            key.processKeyEvent(KeyEventType.PRESSED, 0);
+            key.processKeyEvent(KeyEventType.RELEASED, 0);
+            if (shownCount == shown.length) { shown = Arrays.copyOf(shown, shownCount * 2); }
+            shown[shownCount++] = key;
+        }
+
+        if (0 == shownCount) {
+            stop();
+            scheduled.set(false);
+            // a producer might have added a key after the queue was drained
+            if (sequences.get((int) (head & mask)) == head + 1 && scheduled.compareAndSet(false, true)) { start(); }
+        }
+    }
+}
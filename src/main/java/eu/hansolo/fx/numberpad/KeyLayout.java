@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ * Immutable description of the keys of a pad and their position in a grid of
+ * equally sized cells. A layout is parsed from a compact text format, one line per
+ * row and one token per key:
+ * <pre>
+ * label:KEYCODE[:COLUMNSPANxROWSPAN][:style-class]
+ * </pre>
+ * Keys are placed in the next free cell of their row (cells covered by a row span
+ * from above are skipped), _ leaves a cell empty. Labels may contain unicode escapes
+ * (e.g. \\u25b2) but no whitespace or colon, empty lines and lines starting with # are
+ * ignored. Parsed layouts are cached (LRU), so parsing the same spec again is a lookup.
+ * Layouts with the same cells can be used as layers of one pad (NumberPad.setLayer()).
+ */
+public class KeyLayout {
+    public  static final String                 NUMBER_PAD_SPEC = "\\u25c0:LEFT \\u25b6:RIGHT CLR:CLEAR CANCEL:CANCEL:2x1\n" +
+                                                                  "7:NUMPAD7 8:NUMPAD8 9:NUMPAD9 BS:BACK_SPACE \\u25b2:UP\n" +
+                                                                  "4:NUMPAD4 5:NUMPAD5 6:NUMPAD6 DEL:DELETE \\u25bc:DOWN\n" +
+                                                                  "1:NUMPAD1 2:NUMPAD2 3:NUMPAD3 +:PLUS \\u23ce:ENTER:1x2\n" +
+                                                                  "0:NUMPAD0:2x1 .:SEPARATOR -:MINUS";
+    private static final int                    MAX_CACHED      = 32;
+    private static final Map<String, KeyLayout> CACHE           = new LinkedHashMap<>(MAX_CACHED, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(final Map.Entry<String, KeyLayout> eldest) { return size() > MAX_CACHED; }
+    };
+    private static final Pattern                SPAN            = Pattern.compile("\\d+(x\\d+)?");
+    private static final Pattern                STYLE_CLASS     = Pattern.compile("-?[A-Za-z_][\\w-]*");
+    public  static final KeyLayout              NUMBER_PAD      = parse(NUMBER_PAD_SPEC);
+    private final        int                    columns;
+    private final        int                    rows;
+    private final        String[]               labels;
+    private final        KeyCode[]              keyCodes;
+    private final        String[]               styleClasses;
+    private final        int[]                  column;
+    private final        int[]                  row;
+    private final        int[]                  columnSpan;
+    private final        int[]                  rowSpan;
+    private final        int[]                  cellTable;
+
+
+    // ******************** Constructors **************************************
+    private KeyLayout(final int columns, final int rows, final List<String> labels, final List<KeyCode> keyCodes, final List<String> styleClasses, final List<int[]> cells) {
+        this.columns      = columns;
+        this.rows         = rows;
+        this.labels       = labels.toArray(new String[0]);
+        this.keyCodes     = keyCodes.toArray(new KeyCode[0]);
+        this.styleClasses = styleClasses.toArray(new String[0]);
+        this.column       = new int[cells.size()];
+        this.row          = new int[cells.size()];
+        this.columnSpan   = new int[cells.size()];
+        this.rowSpan      = new int[cells.size()];
+        this.cellTable    = new int[columns * rows];
+        Arrays.fill(cellTable, -1);
+        for (int i = 0 ; i < cells.size() ; i++) {
+            final int[] cell = cells.get(i);
+            column[i]     = cell[0];
+            row[i]        = cell[1];
+            columnSpan[i] = cell[2];
+            rowSpan[i]    = cell[3];
+            for (int r = row[i] ; r < row[i] + rowSpan[i] ; r++) {
+                for (int c = column[i] ; c < column[i] + columnSpan[i] ; c++) {
+                    // a column span can reach into cells that are covered by a row span from above
+                    if (-1 != cellTable[r * columns + c]) {
+                        throw new IllegalArgumentException("Key '" + this.labels[i] + "' overlaps key '" + this.labels[cellTable[r * columns + c]] + "' at column " + c + ", row " + r);
+                    }
+                    cellTable[r * columns + c] = i;
+                }
+            }
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    public static KeyLayout parse(final String spec) {
+        if (null == spec) { throw new IllegalArgumentException("spec must not be null"); }
+        synchronized (CACHE) {
+            KeyLayout layout = CACHE.get(spec);
+            if (null == layout) {
+                layout = doParse(spec);
+                CACHE.put(spec, layout);
+            }
+            return layout;
+        }
+    }
+
+    public int getColumns() { return columns; }
+
+    public int getRows() { return rows; }
+
+    public int getKeyCount() { return labels.length; }
+
+    public String getLabel(final int index) { return labels[index]; }
+
+    public KeyCode getKeyCode(final int index) { return keyCodes[index]; }
+
+    // The additional style class of the key, null if it has none
+    public String getStyleClass(final int index) { return styleClasses[index]; }
+
+    public int getColumn(final int index) { return column[index]; }
+
+    public int getRow(final int index) { return row[index]; }
+
+    public int getColumnSpan(final int index) { return columnSpan[index]; }
+
+    public int getRowSpan(final int index) { return rowSpan[index]; }
+
+    // Index of the key that covers the given cell or -1 if the cell is empty
+    public int getKeyIndexAt(final int column, final int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) { return -1; }
+        return cellTable[row * columns + column];
+    }
+
+    // Arithmetic hit test on a grid with the given cell size and gaps (position relative to the grid), -1 for gaps and empty cells
+    int keyIndexAt(final double x, final double y, final double cellWidth, final double cellHeight, final double horizontalGap, final double verticalGap) {
+        if (cellWidth <= 0 || cellHeight <= 0 || x < 0 || y < 0) { return -1; }
+        final int index = getKeyIndexAt((int) (x / (cellWidth + horizontalGap)), (int) (y / (cellHeight + verticalGap)));
+        if (index < 0) { return -1; }
+        final boolean inKeyX = x - column[index] * (cellWidth + horizontalGap) <= columnSpan[index] * cellWidth + (columnSpan[index] - 1) * horizontalGap;
+        final boolean inKeyY = y - row[index] * (cellHeight + verticalGap) <= rowSpan[index] * cellHeight + (rowSpan[index] - 1) * verticalGap;
+        return inKeyX && inKeyY ? index : -1;
+    }
+
+    // True if both layouts have the same keys at the same cells
+    public boolean hasSameCells(final KeyLayout other) {
+        return columns == other.columns && rows == other.rows && Arrays.equals(cellTable, other.cellTable) &&
+               Arrays.equals(columnSpan, other.columnSpan) && Arrays.equals(rowSpan, other.rowSpan);
+    }
+
+    private static KeyLayout doParse(final String spec) {
+        final List<String>    labels   = new ArrayList<>();
+        final List<KeyCode>   keyCodes = new ArrayList<>();
+        final List<String>    styles   = new ArrayList<>();
+        final List<int[]>     cells    = new ArrayList<>();
+        final List<boolean[]> occupied = new ArrayList<>();
+        int columns = 0;
+        int row     = 0;
+        for (String line : spec.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) { continue; }
+            int column = 0;
+            for (String token : line.split("\\s+")) {
+                while (isOccupied(occupied, column, row)) { column++; }
+                if ("_".equals(token)) {
+                    occupy(occupied, column, row, 1, 1);
+                    column++;
+                    continue;
+                }
+                final String[] parts = token.split(":");
+                if (parts.length < 2 || parts.length > 4 || parts[0].isEmpty()) { throw new IllegalArgumentException("Invalid key '" + token + "' in row " + row); }
+                final KeyCode keyCode;
+                try {
+                    keyCode = KeyCode.valueOf(parts[1]);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown KeyCode '" + parts[1] + "' in row " + row);
+                }
+                // the third part is either the span or the style class
+                final boolean hasSpan       = 4 == parts.length || (3 == parts.length && SPAN.matcher(parts[2]).matches());
+                final boolean hasStyleClass = parts.length > (hasSpan ? 3 : 2);
+                int           columnSpan    = 1;
+                int           rowSpan       = 1;
+                String        styleClass    = null;
+                if (hasStyleClass) {
+                    styleClass = parts[parts.length - 1];
+                    if (!STYLE_CLASS.matcher(styleClass).matches()) { throw new IllegalArgumentException("Invalid style class '" + styleClass + "' in row " + row); }
+                }
+                if (hasSpan) {
+                    final String[] span = parts[2].split("x");
+                    try {
+                        columnSpan = Integer.parseInt(span[0]);
+                        rowSpan    = 2 == span.length ? Integer.parseInt(span[1]) : 1;
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid span '" + parts[2] + "' in row " + row);
+                    }
+                    if (columnSpan < 1 || rowSpan < 1) { throw new IllegalArgumentException("Invalid span '" + parts[2] + "' in row " + row); }
+                }
+                labels.add(unescape(parts[0]));
+                keyCodes.add(keyCode);
+                styles.add(styleClass);
+                cells.add(new int[] { column, row, columnSpan, rowSpan });
+                occupy(occupied, column, row, columnSpan, rowSpan);
+                column += columnSpan;
+            }
+            columns = Math.max(columns, column);
+            row++;
+        }
+        for (boolean[] rowCells : occupied) { columns = Math.max(columns, lastOccupied(rowCells) + 1); }
+        return new KeyLayout(columns, Math.max(row, occupied.size()), labels, keyCodes, styles, cells);
+    }
+
+    private static boolean isOccupied(final List<boolean[]> occupied, final int column, final int row) {
+        return row < occupied.size() && column < occupied.get(row).length && occupied.get(row)[column];
+    }
+
+    private static void occupy(final List<boolean[]> occupied, final int column, final int row, final int columnSpan, final int rowSpan) {
+        for (int r = row ; r < row + rowSpan ; r++) {
+            while (occupied.size() <= r) { occupied.add(new boolean[0]); }
+            boolean[] rowCells = occupied.get(r);
+            if (rowCells.length < column + columnSpan) {
+                rowCells = Arrays.copyOf(rowCells, column + columnSpan);
+                occupied.set(r, rowCells);
+            }
+            for (int c = column ; c < column + columnSpan ; c++) { rowCells[c] = true; }
+        }
+    }
+
+    private static int lastOccupied(final boolean[] rowCells) {
+        for (int i = rowCells.length - 1 ; i >= 0 ; i--) { if (rowCells[i]) { return i; } }
+        return -1;
+    }
+
+    private static String unescape(final String label) {
+        if (!label.contains("\\u")) { return label; }
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0 ; i < label.length() ; i++) {
+            final char c = label.charAt(i);
+            if ('\\' == c && i + 5 < label.length() && 'u' == label.charAt(i + 1)) {
+                try {
+                    result.append((char) Integer.parseInt(label.substring(i + 2, i + 6), 16));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid unicode escape '" + label.substring(i, i + 6) + "' in label '" + label + "'", e);
+                }
+                i += 5;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+
+import java.util.Arrays;
+
+
+/**
+ * One AnimationTimer that fires the REPEAT events for all held keys of all
+ * pads. The held keys are kept in compact arrays and the timer only runs
+ * while at least one key is held, so idle pads cost nothing.
+ * A held key that is disabled, leaves its scene or gets other metaData (e.g. a
+ * new layer) won't see its release anymore and stops repeating.
+ * Must only be used on the FX thread.
+ */
+final class KeyRepeater extends AnimationTimer {
+    private static final KeyRepeater INSTANCE = new KeyRepeater();
+    private              Key[]       keys;
+    private              long[]      nextRepeat;
+    private              Scene[]     scenes;
+    private              Object[]    metaData;
+    private              int         count;
+    private              boolean     running;
+
+
+    // ******************** Constructors **************************************
+    private KeyRepeater() {
+        keys       = new Key[8];
+        nextRepeat = new long[8];
+        scenes     = new Scene[8];
+        metaData   = new Object[8];
+    }
+
+
+    // ******************** Methods *******************************************
+    static void hold(final Key key) { INSTANCE.add(key); }
+
+    static void release(final Key key) { INSTANCE.remove(key); }
+
+    @Override public void handle(final long now) {
+        // backwards, observers may release keys and remove() moves the last key into the free slot
+        for (int i = count - 1 ; i >= 0 ; i = Math.min(i, count) - 1) {
+            final Key key = keys[i];
+            if (key.isDisabled() || key.getScene() != scenes[i] || key.getMetaData() != metaData[i]) {
+                remove(key);
+                continue;
+            }
+            if (now < nextRepeat[i]) { continue; }
+            // don't try to catch up if a pulse was missed
+            nextRepeat[i] = Math.max(nextRepeat[i] + key.getRepeatRateNanos(), now);
+            // repeats only run for presses that passed the PressFilter
+            key.processKeyEvent(KeyEventType.REPEAT, 0);
+        }
+    }
+
+    private void add(final Key key) {
+        for (int i = 0 ; i < count ; i++) { if (keys[i] == key) { return; } }
+        if (count == keys.length) {
+            keys       = Arrays.copyOf(keys, count * 2);
+            nextRepeat = Arrays.copyOf(nextRepeat, count * 2);
+            scenes     = Arrays.copyOf(scenes, count * 2);
+            metaData   = Arrays.copyOf(metaData, count * 2);
+        }
+        keys[count]       = key;
+        nextRepeat[count] = System.nanoTime() + key.getRepeatDelayNanos();
+        // keys on a canvas have no scene of their own
+        scenes[count]     = key.getScene();
+        metaData[count]   = key.getMetaData();
+        count++;
+        if (!running) {
+            running = true;
+            start();
+        }
+    }
+
+    private void remove(final Key key) {
+        for (int i = 0 ; i < count ; i++) {
+            if (keys[i] == key) {
+                count--;
+                keys[i]         = keys[count];
+                nextRepeat[i]   = nextRepeat[count];
+                scenes[i]       = scenes[count];
+                metaData[i]     = metaData[count];
+                keys[count]     = null;
+                scenes[count]   = null;
+                metaData[count] = null;
+                break;
+            }
+        }
+        if (0 == count && running) {
+            running = false;
+            stop();
+        }
+    }
+}
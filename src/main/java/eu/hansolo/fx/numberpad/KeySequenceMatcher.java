@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Recognizes registered key sequences (e.g. service codes like "**7#" or supervisor
+ * PINs) in the keys pressed on a NumberPad. All sequences are compiled into one
+ * Aho-Corasick automaton with a complete transition table, so every pressed key is
+ * one table lookup no matter how many sequences are registered, and nothing is
+ * allocated per key. Overlapping sequences all match (e.g. "**7#" and "7#").
+ * The automaton is rebuilt on the next key after sequences were added or removed.
+ * Must only be used on the FX thread.
+ */
+public class KeySequenceMatcher implements KeyEventObserver {
+    private final List<KeyCode[]> sequences;
+    private final List<Runnable>  callbacks;
+    private       int[]           symbols;
+    private       int             alphabetSize;
+    private       int[]           transitions;
+    private       int[]           firstMatch;
+    private       int[]           nextMatch;
+    private       int[]           dictionaryLinks;
+    private       Runnable[]      compiledCallbacks;
+    private       boolean         dirty;
+    private       int             state;
+    private       KeySubscription subscription;
+    private       NumberPad       numberPad;
+    private final Runnable        layerListener;
+
+
+    // ******************** Constructors **************************************
+    public KeySequenceMatcher() {
+        sequences     = new ArrayList<>();
+        callbacks     = new ArrayList<>();
+        dirty         = true;
+        layerListener = this::reset;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Calls onMatch whenever the given keys were pressed in this order. Aliases of the
+     * main keyboard are treated like the number pad keys (e.g. DIGIT1 like NUMPAD1).
+     */
+    public void register(final Runnable onMatch, final KeyCode... sequence) {
+        if (null == onMatch) { throw new IllegalArgumentException("onMatch must not be null"); }
+        if (null == sequence || 0 == sequence.length) { throw new IllegalArgumentException("sequence must not be empty"); }
+        final KeyCode[] keyCodes = new KeyCode[sequence.length];
+        for (int i = 0 ; i < sequence.length ; i++) {
+            if (null == sequence[i]) { throw new IllegalArgumentException("sequence must not contain null"); }
+            keyCodes[i] = KeyboardBridge.canonical(sequence[i]);
+        }
+        sequences.add(keyCodes);
+        callbacks.add(onMatch);
+        dirty = true;
+    }
+    /** Registers a sequence of digits and '.', '+', '-', '*', '#' (e.g. "**7#") */
+    public void register(final Runnable onMatch, final String sequence) { register(onMatch, toKeyCodes(sequence)); }
+
+    // Removes all registrations of the given sequence
+    public void remove(final KeyCode... sequence) {
+        final KeyCode[] keyCodes = new KeyCode[sequence.length];
+        for (int i = 0 ; i < sequence.length ; i++) { keyCodes[i] = KeyboardBridge.canonical(sequence[i]); }
+        for (int i = sequences.size() - 1 ; i >= 0 ; i--) {
+            if (Arrays.equals(sequences.get(i), keyCodes)) {
+                sequences.remove(i);
+                callbacks.remove(i);
+                dirty = true;
+            }
+        }
+    }
+    public void remove(final String sequence) { remove(toKeyCodes(sequence)); }
+
+    public void clear() {
+        sequences.clear();
+        callbacks.clear();
+        dirty = true;
+    }
+
+    public int getSequenceCount() { return sequences.size(); }
+
+    // Forgets the keys pressed so far
+    public void reset() { state = 0; }
+
+    public void attach(final NumberPad numberPad) {
+        detach();
+        if (null == numberPad) { return; }
+        this.numberPad = numberPad;
+        subscription   = numberPad.subscribe(KeyEventType.PRESSED, this);
+        // keys pressed before a layer switch don't continue a sequence on the new layer
+        numberPad.setOnLayerChanged(layerListener);
+    }
+    public void detach() {
+        if (null == subscription) { return; }
+        subscription.unsubscribe();
+        subscription = null;
+        numberPad.removeOnLayerChanged(layerListener);
+        numberPad = null;
+        reset();
+    }
+
+    @Override public void onKeyEvent(final KeyEvent evt) {
+        if (KeyEventType.PRESSED != evt.getType()) { return; }
+        final Object metaData = evt.getKey().getMetaData();
+        if (metaData instanceof KeyCode) {
+            press((KeyCode) metaData);
+        } else {
+            state = 0;
+        }
+    }
+
+    // Advances the automaton by one key and calls the callbacks of all sequences that end here
+    public void press(final KeyCode keyCode) {
+        if (dirty) { compile(); }
+        final int symbol = symbols[KeyboardBridge.canonical(keyCode).ordinal()];
+        state = symbol < 0 ? 0 : transitions[state * alphabetSize + symbol];
+        // the local copies stay valid if a callback registers or removes sequences
+        final int[]      firstMatch      = this.firstMatch;
+        final int[]      nextMatch       = this.nextMatch;
+        final int[]      dictionaryLinks = this.dictionaryLinks;
+        final Runnable[] callbacks       = compiledCallbacks;
+        for (int s = firstMatch[state] < 0 ? dictionaryLinks[state] : state ; s > 0 ; s = dictionaryLinks[s]) {
+            for (int id = firstMatch[s] ; id >= 0 ; id = nextMatch[id]) { callbacks[id].run(); }
+        }
+    }
+
+    private void compile() {
+        // alphabet: only the KeyCodes that occur in a sequence get a column in the table
+        symbols      = new int[KeyCode.values().length];
+        alphabetSize = 0;
+        int capacity = 1;
+        Arrays.fill(symbols, -1);
+        for (KeyCode[] sequence : sequences) {
+            for (KeyCode keyCode : sequence) {
+                if (symbols[keyCode.ordinal()] < 0) { symbols[keyCode.ordinal()] = alphabetSize++; }
+            }
+            capacity += sequence.length;
+        }
+        final int size = Math.max(1, alphabetSize);
+
+        // trie, -1 is a missing edge
+        int[] table  = new int[capacity * size];
+        int[] first  = new int[capacity];
+        int[] next   = new int[sequences.size()];
+        int   states = 1;
+        Arrays.fill(table, -1);
+        Arrays.fill(first, -1);
+        for (int id = 0 ; id < sequences.size() ; id++) {
+            int s = 0;
+            for (KeyCode keyCode : sequences.get(id)) {
+                final int edge = s * size + symbols[keyCode.ordinal()];
+                if (table[edge] < 0) { table[edge] = states++; }
+                s = table[edge];
+            }
+            next[id] = first[s];
+            first[s] = id;
+        }
+
+        // failure links in breadth first order, missing edges become the transitions of the failure state
+        final int[] failures = new int[states];
+        final int[] links    = new int[states];
+        final int[] queue    = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int a = 0 ; a < alphabetSize ; a++) {
+            final int t = table[a];
+            if (t < 0) {
+                table[a] = 0;
+            } else {
+                queue[tail++] = t;
+            }
+        }
+        while (head < tail) {
+            final int s = queue[head++];
+            for (int a = 0 ; a < alphabetSize ; a++) {
+                final int edge = s * size + a;
+                final int t    = table[edge];
+                if (t < 0) {
+                    table[edge] = table[failures[s] * size + a];
+                } else {
+                    failures[t]   = table[failures[s] * size + a];
+                    links[t]      = first[failures[t]] >= 0 ? failures[t] : links[failures[t]];
+                    queue[tail++] = t;
+                }
+            }
+        }
+
+        transitions       = states == capacity ? table : Arrays.copyOf(table, states * size);
+        firstMatch        = states == capacity ? first : Arrays.copyOf(first, states);
+        nextMatch         = next;
+        dictionaryLinks   = links;
+        compiledCallbacks = callbacks.toArray(new Runnable[0]);
+        alphabetSize      = size;
+        state             = 0;
+        dirty             = false;
+    }
+
+    private static KeyCode[] toKeyCodes(final String sequence) {
+        if (null == sequence) { throw new IllegalArgumentException("sequence must not be null"); }
+        final KeyCode[] keyCodes = new KeyCode[sequence.length()];
+        for (int i = 0 ; i < sequence.length() ; i++) {
+            keyCodes[i] = NumberPad.toKeyCode(sequence.charAt(i));
+            if (null == keyCodes[i]) { throw new IllegalArgumentException("No key for '" + sequence.charAt(i) + "' in " + sequence); }
+        }
+        return keyCodes;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Press counts per key, latency histograms per observer and the latency from the
+ * input event (touch/mouse) until the last observer returned. All values are
+ * primitive counters that are written without locks. Collecting can be switched
+ * on and off at runtime, also via JMX.
+ * The histograms of the observers are weakly keyed, the histogram of an observer
+ * is dropped once the observer was removed and garbage collected.
+ * Latencies are in nanoseconds, the histograms use the buckets of Histogram.
+ * With an AsyncDispatcher the dispatch latency ends when the event was queued.
+ */
+public class KeyStatistics implements KeyStatisticsMBean {
+    private static final Logger                           LOGGER = Logger.getLogger(KeyStatistics.class.getName());
+    private final        String[]                         keyNames;
+    private final        AtomicLongArray                  pressCounts;
+    private final        Histogram                        dispatchLatency;
+    private final        Map<KeyEventObserver, Histogram> observerLatencies;
+    private volatile     boolean                          enabled;
+    private              ObjectName                       objectName;
+
+
+    // ******************** Constructors **************************************
+    public KeyStatistics(final List<? extends Key> keys) {
+        this.keyNames          = new String[keys.size()];
+        this.pressCounts       = new AtomicLongArray(keys.size());
+        this.dispatchLatency   = new Histogram();
+        this.observerLatencies = Collections.synchronizedMap(new WeakHashMap<>());
+        this.enabled           = true;
+        for (int i = 0 ; i < keys.size() ; i++) {
+            final Key key = keys.get(i);
+            keyNames[i] = null == key.getMetaData() ? key.getKeyText() : key.getMetaData().toString();
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public boolean isEnabled() { return enabled; }
+    @Override public void setEnabled(final boolean enabled) { this.enabled = enabled; }
+
+    @Override public String[] getKeyNames() { return keyNames.clone(); }
+
+    @Override public long[] getPressCounts() {
+        final long[] counts = new long[pressCounts.length()];
+        for (int i = 0 ; i < counts.length ; i++) { counts[i] = pressCounts.get(i); }
+        return counts;
+    }
+
+    @Override public long getDispatchCount() { return dispatchLatency.getCount(); }
+
+    @Override public double getDispatchLatencyMean() { return dispatchLatency.getMean(); }
+
+    @Override public long getDispatchLatencyMax() { return dispatchLatency.getMax(); }
+
+    @Override public long getDispatchLatency99thPercentile() { return dispatchLatency.getPercentile(99); }
+
+    @Override public long[] getDispatchLatencyHistogram() { return dispatchLatency.getBuckets(); }
+
+    @Override public String[] getObserverNames() {
+        return observerEntries().stream().map(entry -> entry.getKey().toString()).toArray(String[]::new);
+    }
+
+    @Override public double[] getObserverLatencyMeans() {
+        return observerEntries().stream().mapToDouble(entry -> entry.getValue().getMean()).toArray();
+    }
+
+    @Override public long[] getObserverLatencyMaxima() {
+        return observerEntries().stream().mapToLong(entry -> entry.getValue().getMax()).toArray();
+    }
+
+    @Override public long[][] getObserverLatencyHistograms() {
+        return observerEntries().stream().map(entry -> entry.getValue().getBuckets()).toArray(long[][]::new);
+    }
+
+    public Histogram getDispatchLatency() { return dispatchLatency; }
+
+    public Histogram getObserverLatency(final KeyEventObserver observer) { return observerLatencies.get(observer); }
+
+    @Override public void reset() {
+        for (int i = 0 ; i < pressCounts.length() ; i++) { pressCounts.set(i, 0); }
+        dispatchLatency.reset();
+        observerLatencies.clear();
+    }
+
+    /** Registers the statistics as MBean with the name eu.hansolo.fx.numberpad:type=NumberPad,name=[name] */
+    public void register(final String name) {
+        unregister();
+        try {
+            objectName = new ObjectName("eu.hansolo.fx.numberpad:type=NumberPad,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+            LOGGER.log(Level.WARNING, "Could not register statistics MBean " + name, e);
+            objectName = null;
+        }
+    }
+
+    public void unregister() {
+        if (null == objectName) { return; }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            LOGGER.log(Level.FINE, "Could not unregister statistics MBean " + objectName, e);
+        }
+        objectName = null;
+    }
+
+    void recordPress(final int index) {
+        if (index >= 0 && index < pressCounts.length()) { pressCounts.lazySet(index, pressCounts.get(index) + 1); }
+    }
+
+    void recordDispatch(final long nanos) { dispatchLatency.record(nanos); }
+
+    void recordObserver(final KeyEventObserver observer, final long nanos) {
+        Histogram histogram = observerLatencies.get(observer);
+        if (null == histogram) { histogram = observerLatencies.computeIfAbsent(observer, o -> new Histogram()); }
+        histogram.record(nanos);
+    }
+
+    // Copies the entries (incl. strong references to the observers) while holding the lock of the map
+    private List<Map.Entry<KeyEventObserver, Histogram>> observerEntries() {
+        synchronized (observerLatencies) {
+            final List<Map.Entry<KeyEventObserver, Histogram>> entries = new ArrayList<>(observerLatencies.size());
+            observerLatencies.forEach((observer, histogram) -> { if (null != observer) { entries.add(Map.entry(observer, histogram)); } });
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+public interface KeyStatisticsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    String[] getKeyNames();
+
+    long[] getPressCounts();
+
+    long getDispatchCount();
+
+    double getDispatchLatencyMean();
+
+    long getDispatchLatencyMax();
+
+    long getDispatchLatency99thPercentile();
+
+    long[] getDispatchLatencyHistogram();
+
+    String[] getObserverNames();
+
+    double[] getObserverLatencyMeans();
+
+    long[] getObserverLatencyMaxima();
+
+    long[][] getObserverLatencyHistograms();
+
+    void reset();
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.Collections;
+import java.util.Set;
+
+
+/**
+ * Handle of an observer that was subscribed to a NumberPad with
+ * NumberPad.subscribe(), call unsubscribe() to remove it again.
+ */
+public final class KeySubscription {
+    private final ObserverRegistry registry;
+    private final KeyEventObserver observer;
+    private final KeyEventType     type;
+    private final Set<KeyCode>     keyCodes;
+    private       boolean          subscribed;
+
+
+    // ******************** Constructors **************************************
+    KeySubscription(final ObserverRegistry registry, final KeyEventObserver observer, final KeyEventType type, final Set<KeyCode> keyCodes) {
+        this.registry   = registry;
+        this.observer   = observer;
+        this.type       = type;
+        this.keyCodes   = Collections.unmodifiableSet(keyCodes);
+        this.subscribed = true;
+    }
+
+
+    // ******************** Methods *******************************************
+    public KeyEventObserver getObserver() { return observer; }
+
+    public KeyEventType getType() { return type; }
+
+    // The key codes the observer is interested in, empty for all keys
+    public Set<KeyCode> getKeyCodes() { return keyCodes; }
+
+    public synchronized boolean isSubscribed() { return subscribed; }
+
+    public synchronized void unsubscribe() {
+        if (!subscribed) { return; }
+        subscribed = false;
+        registry.unsubscribe(observer, type, keyCodes);
+    }
+}
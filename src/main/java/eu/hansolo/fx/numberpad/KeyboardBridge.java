@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Forwards the presses of a hardware keyboard (e.g. a physical numpad) to the keys
+ * of a NumberPad. The keys are indexed by their KeyCode metaData, so every hardware
+ * key event is a constant time lookup. The on-screen key shows its pressed look and
+ * fires the same KeyEvents as a touch or mouse press, in the order they arrive.
+ * Digits of the main keyboard, Escape and the numpad operators are mapped to the
+ * corresponding number pad keys.
+ */
+public class KeyboardBridge {
+    private static final Map<KeyCode, KeyCode>                     ALIASES = new EnumMap<>(KeyCode.class);
+    private final        NumberPad                                 numberPad;
+    private final        EnumMap<KeyCode, Key>                     index;
+    private final        int[]                                     held;
+    private final        EventHandler<javafx.scene.input.KeyEvent> handler;
+    private final        Runnable                                  layerListener;
+    private              Scene                                     scene;
+    private              boolean                                   consumeEvents;
+
+    static {
+        ALIASES.put(KeyCode.DIGIT0, KeyCode.NUMPAD0);
+        ALIASES.put(KeyCode.DIGIT1, KeyCode.NUMPAD1);
+        ALIASES.put(KeyCode.DIGIT2, KeyCode.NUMPAD2);
+        ALIASES.put(KeyCode.DIGIT3, KeyCode.NUMPAD3);
+        ALIASES.put(KeyCode.DIGIT4, KeyCode.NUMPAD4);
+        ALIASES.put(KeyCode.DIGIT5, KeyCode.NUMPAD5);
+        ALIASES.put(KeyCode.DIGIT6, KeyCode.NUMPAD6);
+        ALIASES.put(KeyCode.DIGIT7, KeyCode.NUMPAD7);
+        ALIASES.put(KeyCode.DIGIT8, KeyCode.NUMPAD8);
+        ALIASES.put(KeyCode.DIGIT9, KeyCode.NUMPAD9);
+        ALIASES.put(KeyCode.DECIMAL, KeyCode.SEPARATOR);
+        ALIASES.put(KeyCode.PERIOD, KeyCode.SEPARATOR);
+        ALIASES.put(KeyCode.COMMA, KeyCode.SEPARATOR);
+        ALIASES.put(KeyCode.SUBTRACT, KeyCode.MINUS);
+        ALIASES.put(KeyCode.ADD, KeyCode.PLUS);
+        ALIASES.put(KeyCode.ESCAPE, KeyCode.CANCEL);
+    }
+
+
+    // ******************** Constructors **************************************
+    public KeyboardBridge(final NumberPad numberPad) {
+        this.numberPad     = numberPad;
+        this.index         = new EnumMap<>(KeyCode.class);
+        this.held          = new int[KeyCode.values().length];
+        this.consumeEvents = false;
+        this.handler       = e -> {
+            final int ordinal = e.getCode().ordinal();
+            final Key key     = index.get(e.getCode());
+            final int heldKey = held[ordinal];
+            if (null == key && -1 == heldKey) { return; }
+            EventType<javafx.scene.input.KeyEvent> type = e.getEventType();
+            if (javafx.scene.input.KeyEvent.KEY_PRESSED.equals(type)) {
+                // the OS repeats KEY_PRESSED while a key is held, repeats are handled by the key itself
+                if (-1 == heldKey && null != key && numberPad.pressKey(key, true)) { held[ordinal] = key.getIndex(); }
+            } else if (javafx.scene.input.KeyEvent.KEY_RELEASED.equals(type)) {
+                // only pressed keys are released, by the key that was pressed (the index might have changed since)
+                if (-1 != heldKey) { release(ordinal); }
+            }
+            if (consumeEvents) { e.consume(); }
+        };
+        this.layerListener = this::reindex;
+        Arrays.fill(held, -1);
+        reindex();
+    }
+
+
+    // ******************** Methods *******************************************
+    /** Rebuilds the KeyCode index, needed if the metaData of the keys was changed */
+    public void reindex() {
+        index.clear();
+        index.putAll(createIndex(numberPad.getKeys()));
+    }
+
+    public void attach(final Scene scene) {
+        detach();
+        this.scene = scene;
+        // the index follows the layers of the pad while the bridge is attached
+        reindex();
+        numberPad.setOnLayerChanged(layerListener);
+        scene.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, handler);
+        scene.addEventFilter(javafx.scene.input.KeyEvent.KEY_RELEASED, handler);
+    }
+
+    public void detach() {
+        if (null == scene) { return; }
+        scene.removeEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, handler);
+        scene.removeEventFilter(javafx.scene.input.KeyEvent.KEY_RELEASED, handler);
+        scene = null;
+        numberPad.removeOnLayerChanged(layerListener);
+        for (int ordinal = 0 ; ordinal < held.length ; ordinal++) {
+            if (-1 != held[ordinal]) { release(ordinal); }
+        }
+    }
+
+    public boolean isAttached() { return null != scene; }
+
+    /** If true the hardware key events that were forwarded to the number pad will be consumed */
+    public boolean isConsumeEvents() { return consumeEvents; }
+    public void setConsumeEvents(final boolean consumeEvents) { this.consumeEvents = consumeEvents; }
+
+    public Key getKey(final KeyCode keyCode) { return index.get(keyCode); }
+
+    private void release(final int ordinal) {
+        final Key key = numberPad.getKeys().get(held[ordinal]);
+        held[ordinal] = -1;
+        numberPad.pressKey(key, false);
+    }
+
+    // The number pad KeyCode for an alias of the main keyboard (e.g. NUMPAD1 for DIGIT1)
+    static KeyCode canonical(final KeyCode keyCode) { return ALIASES.getOrDefault(keyCode, keyCode); }
+
+    // The keys by their KeyCode metaData incl. the aliases of the main keyboard
+    static EnumMap<KeyCode, Key> createIndex(final List<Key> keys) {
+        final EnumMap<KeyCode, Key> index = new EnumMap<>(KeyCode.class);
+        for (Key key : keys) {
+            if (key.getMetaData() instanceof KeyCode) { index.put((KeyCode) key.getMetaData(), key); }
+        }
+        ALIASES.forEach((alias, keyCode) -> {
+            if (!index.containsKey(alias) && index.containsKey(keyCode)) { index.put(alias, index.get(keyCode)); }
+        });
+        return index;
+    }
+}
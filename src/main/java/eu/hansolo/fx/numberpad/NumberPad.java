@@ -17,55 +17,62 @@
 package eu.hansolo.fx.numberpad;
 
 import javafx.beans.DefaultProperty;
-import javafx.collections.ObservableList;
-import javafx.geometry.HPos;
-import javafx.geometry.VPos;
+import javafx.application.ConditionalFeature;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
 import javafx.scene.Node;
 import javafx.scene.input.KeyCode;
-import javafx.scene.layout.GridPane;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.TouchEvent;
+import javafx.scene.input.TouchPoint;
 import javafx.scene.layout.Region;
+import javafx.scene.text.Font;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 
 public class NumberPad extends Region {
-    private static final String    CSS_FILE         = "numberpad.css";
-    private static final double    PREFERRED_WIDTH  = 250;
-    private static final double    PREFERRED_HEIGHT = 250;
-    private static final double    MINIMUM_WIDTH    = 50;
-    private static final double    MINIMUM_HEIGHT   = 50;
-    private static final double    MAXIMUM_WIDTH    = 1024;
-    private static final double    MAXIMUM_HEIGHT   = 1024;
-    private              String    userAgentStyleSheet;
-    private              double    width;
-    private              double    height;
-    private              double    horizontalGap;
-    private              double    verticalGap;
-    private              Key       key0;
-    private              Key       key1;
-    private              Key       key2;
-    private              Key       key3;
-    private              Key       key4;
-    private              Key       key5;
-    private              Key       key6;
-    private              Key       key7;
-    private              Key       key8;
-    private              Key       key9;
-    private              Key       keyDot;
-    private              Key       keyPlus;
-    private              Key       keyMinus;
-    private              Key       keyDel;
-    private              Key       keyBS;
-    private              Key       keyUp;
-    private              Key       keyRight;
-    private              Key       keyDown;
-    private              Key       keyLeft;
-    private              Key       keyEnter;
-    private              Key       keyCancel;
-    private              Key       keyClr;
-    private              List<Key> keys;
-    private              GridPane  pane;
+    private static final String           CSS_FILE         = "numberpad.css";
+    private static final String           USER_AGENT_CSS   = Key.class.getResource(CSS_FILE).toExternalForm();
+    private static final double           CELL_SIZE        = 50;
+    private static final int              MAX_TOUCH_POINTS = 10;
+    private static final KeyCode[]        DIGITS           = { KeyCode.DIGIT0, KeyCode.DIGIT1, KeyCode.DIGIT2, KeyCode.DIGIT3, KeyCode.DIGIT4,
+                                                               KeyCode.DIGIT5, KeyCode.DIGIT6, KeyCode.DIGIT7, KeyCode.DIGIT8, KeyCode.DIGIT9 };
+    private static final double           MINIMUM_WIDTH    = 50;
+    private static final double           MINIMUM_HEIGHT   = 50;
+    private static final double           MAXIMUM_WIDTH    = 1024;
+    private static final double           MAXIMUM_HEIGHT   = 1024;
+    private final        KeyLayout        layout;
+    private              KeyLayout        layer;
+    private final        ObserverRegistry observers;
+    private final        boolean          delegateInput;
+    private              double           width;
+    private              double           height;
+    private              double           horizontalGap;
+    private              double           verticalGap;
+    private              double           cellWidth;
+    private              double           cellHeight;
+    private              List<Key>        keys;
+    private              Font[]           fonts;
+    private              Font             uniformFont;
+    private              KeyCanvas        canvas;
+    private              RenderMode       renderMode;
+    private              boolean          baked;
+    private              InputBuffer      inputBuffer;
+    private              TouchTracker     touches;
+    private              Key              mousePressedKey;
+    private volatile     KeyInjector      injector;
+    private final        List<Runnable>   layerListeners;
 
 
     // ******************** Constructors **************************************
@@ -73,8 +80,36 @@ public class NumberPad extends Region {
         this(5, 5);
     }
     public NumberPad(final double horizontalGap, double verticalGap) {
-        this.horizontalGap = horizontalGap;
-        this.verticalGap   = verticalGap;
+        this(horizontalGap, verticalGap, RenderMode.NODES);
+    }
+    public NumberPad(final double horizontalGap, double verticalGap, final RenderMode renderMode) {
+        this(KeyLayout.NUMBER_PAD, horizontalGap, verticalGap, renderMode);
+    }
+    public NumberPad(final KeyLayout layout) {
+        this(layout, 5, 5, RenderMode.NODES);
+    }
+    public NumberPad(final KeyLayout layout, final double horizontalGap, double verticalGap, final RenderMode renderMode) {
+        this(layout, horizontalGap, verticalGap, renderMode, false);
+    }
+    /**
+     * With delegated input the pad handles the mouse and touch events of all keys with
+     * one event filter and keeps one set of observers for all keys. Otherwise (the default
+     * of the other constructors) every key has its own event handlers and the observers
+     * are registered on each key (subscriptions are always kept by the pad).
+     * Multi-touch tracking (sliding a finger from key to key, releasing lost touch points)
+     * needs delegated input or RenderMode.CANVAS, keys with their own handlers only see
+     * the touch points that were pressed on them.
+     */
+    public NumberPad(final KeyLayout layout, final double horizontalGap, double verticalGap, final RenderMode renderMode, final boolean delegateInput) {
+        if (null == layout) { throw new IllegalArgumentException("layout must not be null"); }
+        this.layout         = layout;
+        this.layer          = layout;
+        this.horizontalGap  = horizontalGap;
+        this.verticalGap    = verticalGap;
+        this.renderMode     = null == renderMode ? RenderMode.NODES : renderMode;
+        this.observers      = new ObserverRegistry();
+        this.layerListeners = new CopyOnWriteArrayList<>();
+        this.delegateInput  = delegateInput;
         initGraphics();
         registerListeners();
     }
@@ -87,73 +122,56 @@ public class NumberPad extends Region {
             if (getPrefWidth() > 0 && getPrefHeight() > 0) {
                 setPrefSize(getPrefWidth(), getPrefHeight());
             } else {
-                setPrefSize(PREFERRED_WIDTH, PREFERRED_HEIGHT);
+                setPrefSize(layout.getColumns() * CELL_SIZE, layout.getRows() * CELL_SIZE);
             }
         }
 
         getStyleClass().add("number-pad");
 
-        keys = new ArrayList<>();
-
-        key0     = createKey("0", KeyCode.NUMPAD0);
-        key1     = createKey("1", KeyCode.NUMPAD1);
-        key2     = createKey("2", KeyCode.NUMPAD2);
-        key3     = createKey("3", KeyCode.NUMPAD3);
-        key4     = createKey("4", KeyCode.NUMPAD4);
-        key5     = createKey("5", KeyCode.NUMPAD5);
-        key6     = createKey("6", KeyCode.NUMPAD6);
-        key7     = createKey("7", KeyCode.NUMPAD7);
-        key8     = createKey("8", KeyCode.NUMPAD8);
-        key9     = createKey("9", KeyCode.NUMPAD9);
-        keyDot   = createKey(".", KeyCode.SEPARATOR);
-        keyMinus = createKey("-", KeyCode.MINUS);
-        keyPlus  = createKey("+", KeyCode.PLUS);
-        keyDel   = createKey("DEL", KeyCode.DELETE);
-        keyBS    = createKey("BS", KeyCode.BACK_SPACE);
-        keyUp     = createKey("\u25b2", KeyCode.UP);
-        keyRight  = createKey("\u25b6", KeyCode.RIGHT);
-        keyDown   = createKey("\u25bc", KeyCode.DOWN);
-        keyLeft   = createKey("\u25c0", KeyCode.LEFT);
-        keyEnter  = createKey("\u23ce", KeyCode.ENTER);
-        keyCancel = createKey("CANCEL", KeyCode.CANCEL);
-        keyClr    = createKey("CLR", KeyCode.CLEAR);
-
-        pane = new GridPane();
-        pane.setHgap(horizontalGap);
-        pane.setVgap(verticalGap);
-        pane.add(keyLeft, 0, 0);
-        pane.add(keyRight, 1, 0);
-        pane.add(keyClr, 2, 0);
-        pane.add(keyCancel, 3, 0);
-        pane.add(key7, 0, 1);
-        pane.add(key8, 1, 1);
-        pane.add(key9, 2, 1);
-        pane.add(keyBS, 3, 1);
-        pane.add(keyUp, 4, 1);
-        pane.add(key4, 0, 2);
-        pane.add(key5, 1, 2);
-        pane.add(key6, 2, 2);
-        pane.add(keyDel, 3, 2);
-        pane.add(keyDown, 4, 2);
-        pane.add(key1, 0, 3);
-        pane.add(key2, 1, 3);
-        pane.add(key3, 2, 3);
-        pane.add(keyPlus, 3, 3);
-        pane.add(keyEnter, 4, 3);
-        pane.add(key0, 0, 4);
-        pane.add(keyDot, 2, 4);
-        pane.add(keyMinus, 3,4 );
-
-        GridPane.setColumnSpan(key0, 2);
-        GridPane.setColumnSpan(keyCancel, 2);
-        GridPane.setRowSpan(keyEnter, 2);
-
-        getChildren().setAll(pane);
+        keys = new ArrayList<>(layout.getKeyCount());
+        for (int i = 0 ; i < layout.getKeyCount() ; i++) {
+            final KeyCode keyCode = layout.getKeyCode(i);
+            final Key     key     = createKey(layout.getLabel(i), keyCode);
+            key.setAutoRepeat(isRepeatable(keyCode));
+            if (null != layout.getStyleClass(i)) { key.getStyleClass().add(layout.getStyleClass(i)); }
+        }
+
+        fonts = new Font[keys.size()];
+
+        if (RenderMode.CANVAS == renderMode) {
+            canvas = new KeyCanvas(keys, layout);
+            getChildren().setAll(canvas);
+        } else {
+            getChildren().setAll(keys);
+        }
     }
 
+
     private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
+        getStylesheets().addListener((InvalidationListener) o -> invalidateBakedImages());
+        styleProperty().addListener(o -> invalidateBakedImages());
+        if (isDelegatingInput() || RenderMode.CANVAS == renderMode) {
+            if (Platform.isSupported(ConditionalFeature.INPUT_MULTITOUCH)) {
+                addEventFilter(TouchEvent.ANY, this::handleTouch);
+                sceneProperty().addListener(o -> releaseAllTouches());
+            } else if (RenderMode.NODES == renderMode) {
+                final EventHandler<MouseEvent> mouseFilter = e -> {
+                    if (MouseEvent.MOUSE_PRESSED.equals(e.getEventType())) {
+                        final Key key = keyOf(e.getTarget());
+                        if (null == key || key.isDisabled()) { return; }
+                        mousePressedKey = key;
+                        key.fireKeyEvent(KeyEventType.PRESSED, key.inputTime());
+                    } else if (null != mousePressedKey) {
+                        // only release the key that was pressed by this filter
+                        final Key key = mousePressedKey;
+                        mousePressedKey = null;
+                        key.fireKeyEvent(KeyEventType.RELEASED, key.inputTime());
+                    }
+                };
+                addEventFilter(MouseEvent.MOUSE_PRESSED, mouseFilter);
+                addEventFilter(MouseEvent.MOUSE_RELEASED, mouseFilter);
+            }
+        }
     }
 
 
@@ -167,29 +185,278 @@ public class NumberPad extends Region {
 
 
     public void setOnKeyPressed(final KeyEventObserver observer) {
-        keys.forEach(key -> key.setOnKeyPressed(observer));
+        if (isDelegatingInput()) {
+            observers.add(observer, KeyEventType.PRESSED);
+        } else {
+            keys.forEach(key -> key.setOnKeyPressed(observer));
+        }
     }
     public void removeOnKeyPressed(final KeyEventObserver observer) {
-        keys.forEach(key -> key.removeOnKeyPressed(observer));
+        if (isDelegatingInput()) {
+            observers.remove(observer, KeyEventType.PRESSED);
+        } else {
+            keys.forEach(key -> key.removeOnKeyPressed(observer));
+        }
     }
 
     public void setOnKeyReleased(final KeyEventObserver observer) {
-        keys.forEach(key -> key.setOnKeyReleased(observer));
+        if (isDelegatingInput()) {
+            observers.add(observer, KeyEventType.RELEASED);
+        } else {
+            keys.forEach(key -> key.setOnKeyReleased(observer));
+        }
     }
     public void removeOnKeyReleased(final KeyEventObserver observer) {
-        keys.forEach(key -> key.removeOnKeyReleased(observer));
+        if (isDelegatingInput()) {
+            observers.remove(observer, KeyEventType.RELEASED);
+        } else {
+            keys.forEach(key -> key.removeOnKeyReleased(observer));
+        }
+    }
+
+    public void setOnKeyRepeated(final KeyEventObserver observer) {
+        if (isDelegatingInput()) {
+            observers.add(observer, KeyEventType.REPEAT);
+        } else {
+            keys.forEach(key -> key.setOnKeyRepeated(observer));
+        }
+    }
+    public void removeOnKeyRepeated(final KeyEventObserver observer) {
+        if (isDelegatingInput()) {
+            observers.remove(observer, KeyEventType.REPEAT);
+        } else {
+            keys.forEach(key -> key.removeOnKeyRepeated(observer));
+        }
+    }
+
+    /**
+     * Subscribes the observer to events of the given type of the keys with the given
+     * key codes, or of all keys if no key code is given. Other than setOnKeyPressed()
+     * and friends the same observer can be subscribed for several types and key sets.
+     * The subscriptions are indexed by type and key code, so an event only visits the
+     * observers that are interested in it.
+     */
+    public KeySubscription subscribe(final KeyEventType type, final KeyEventObserver observer, final KeyCode... keyCodes) {
+        final Set<KeyCode> keyCodeSet = EnumSet.noneOf(KeyCode.class);
+        Collections.addAll(keyCodeSet, keyCodes);
+        return subscribe(type, observer, keyCodeSet);
+    }
+    public KeySubscription subscribe(final KeyEventType type, final KeyEventObserver observer, final Set<KeyCode> keyCodes) {
+        if (null == type || null == observer || null == keyCodes) { throw new IllegalArgumentException("type, observer and keyCodes must not be null"); }
+        final Set<KeyCode> keyCodeSet = keyCodes.isEmpty() ? EnumSet.noneOf(KeyCode.class) : EnumSet.copyOf(keyCodes);
+        observers.subscribe(observer, type, keyCodeSet);
+        return new KeySubscription(observers, observer, type, keyCodeSet);
+    }
+
+    // The delay (ms) after which held keys with auto repeat (BS, DEL and the cursor keys) start firing REPEAT events
+    public void setRepeatDelay(final long repeatDelay) { keys.forEach(key -> key.setRepeatDelay(repeatDelay)); }
+
+    // The time (ms) between two REPEAT events of a held key
+    public void setRepeatRate(final long repeatRate) { keys.forEach(key -> key.setRepeatRate(repeatRate)); }
+
+    /**
+     * Returns the numeric input model of this pad, it will be created and registered
+     * as observer for pressed keys on first call.
+     */
+    public InputBuffer getInputBuffer() {
+        if (null == inputBuffer) {
+            inputBuffer = new InputBuffer();
+            setOnKeyPressed(inputBuffer);
+            setOnKeyRepeated(inputBuffer);
+        }
+        return inputBuffer;
+    }
+
+    /**
+     * Calls the observers of all keys asynchronously on the given executor. The events
+     * are queued in a bounded ring buffer of the given capacity, their order is kept.
+     * The observers must not touch the scene graph, see AsyncDispatcher.
+     */
+    public AsyncDispatcher enableAsyncDispatch(final Executor executor, final int capacity, final OverflowPolicy overflowPolicy) {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(executor, capacity, overflowPolicy);
+        keys.forEach(key -> key.setAsyncDispatcher(dispatcher));
+        return dispatcher;
+    }
+    public void disableAsyncDispatch() {
+        keys.forEach(key -> key.setAsyncDispatcher(null));
+    }
+    public AsyncDispatcher getAsyncDispatcher() { return keys.isEmpty() ? null : keys.get(0).getAsyncDispatcher(); }
+
+    /**
+     * Presses and releases the key with the given KeyCode (digits and operators of the
+     * main keyboard are mapped like in KeyboardBridge). Can be called from any thread,
+     * the keys are queued without locking and dispatched on the FX thread once per pulse,
+     * so a burst (e.g. a barcode scan) costs one Platform.runLater() instead of one per key.
+     * Returns false if the pad has no such key or too many keys are pending.
+     */
+    public boolean injectKey(final KeyCode keyCode) { return getInjector().inject(keyCode); }
+
+    // Injects the keys for the digits, '.', ',', '+', '-', '*' and '#' of the given text, returns the number of injected keys
+    public int injectKeys(final CharSequence text) {
+        final KeyInjector injector = getInjector();
+        int injected = 0;
+        for (int i = 0 ; i < text.length() ; i++) {
+            final KeyCode keyCode = toKeyCode(text.charAt(i));
+            if (null != keyCode && injector.inject(keyCode)) { injected++; }
+        }
+        return injected;
+    }
+
+    /**
+     * Creates a Flow.Publisher of the events of all keys of this pad. Every subscriber
+     * gets a buffer of the given capacity and is called on the given executor as far
+     * as it has requested events, batched() delivers the events of a pulse at once.
+     */
+    public KeyEventPublisher createPublisher(final Executor executor, final int capacity, final OverflowPolicy overflowPolicy) {
+        return new KeyEventPublisher(this, executor, capacity, overflowPolicy);
+    }
+
+    /**
+     * Starts recording press counts and latencies for all keys of this pad and
+     * registers them as MBean (eu.hansolo.fx.numberpad:type=NumberPad,name=[name]).
+     * Recording can be switched on and off at runtime with KeyStatistics.setEnabled().
+     */
+    public KeyStatistics enableStatistics(final String name) {
+        disableStatistics();
+        final KeyStatistics statistics = new KeyStatistics(keys);
+        keys.forEach(key -> key.setStatistics(statistics));
+        if (null != name) { statistics.register(name); }
+        return statistics;
+    }
+    public void disableStatistics() {
+        final KeyStatistics statistics = getStatistics();
+        if (null == statistics) { return; }
+        keys.forEach(key -> key.setStatistics(null));
+        statistics.unregister();
+    }
+    public KeyStatistics getStatistics() { return keys.isEmpty() ? null : keys.get(0).getStatistics(); }
+
+    /**
+     * Filters bouncing and phantom presses of all keys of this pad before they reach
+     * the observers (times in ms, 0 switches a rule off). The returned filter can be
+     * reconfigured at runtime and counts the rejected presses per rule.
+     */
+    public PressFilter enablePressFilter(final long debounce, final long minimumPressDuration, final long neighbourSuppression) {
+        final PressFilter filter = new PressFilter(keys, layout, RenderMode.CANVAS == renderMode ? canvas::redrawKey : null);
+        filter.setDebounce(debounce);
+        filter.setMinimumPressDuration(minimumPressDuration);
+        filter.setNeighbourSuppression(neighbourSuppression);
+        keys.forEach(key -> key.setPressFilter(filter));
+        return filter;
+    }
+    public void disablePressFilter() { keys.forEach(key -> key.setPressFilter(null)); }
+    public PressFilter getPressFilter() { return keys.isEmpty() ? null : keys.get(0).getPressFilter(); }
+
+    public RenderMode getRenderMode() { return renderMode; }
+
+    /**
+     * Bakes the normal, hover and pressed look of all keys into shared images so that
+     * state changes swap images instead of re-applying CSS (only in RenderMode.NODES).
+     */
+    public boolean isBaked() { return baked; }
+    public void setBaked(final boolean baked) {
+        this.baked = baked;
+        if (RenderMode.NODES == renderMode) { keys.forEach(key -> key.setBaked(baked)); }
     }
 
     public double getHorizontalGap() { return horizontalGap; }
     public void setHorizontalGap(final double horizontalGap) {
         this.horizontalGap = horizontalGap;
-        pane.setHgap(horizontalGap);
+        invalidateCells();
     }
 
     public double getVerticalGap() { return verticalGap; }
     public void setVerticalGap(final double verticalGap) {
         this.verticalGap = verticalGap;
-        pane.setVgap(verticalGap);
+        invalidateCells();
+    }
+
+    public KeyLayout getLayout() { return layout; }
+
+    /**
+     * Switches the keys to the labels, key codes and style classes of the given layer
+     * (e.g. a shift or function layer), null switches back to the layout of the pad.
+     * The layer must have the same cells as the layout. The existing keys are rebound
+     * in one pass and only keys whose label length changed get a new font.
+     */
+    public KeyLayout getLayer() { return layer; }
+    public void setLayer(final KeyLayout layer) {
+        final KeyLayout newLayer = null == layer ? layout : layer;
+        if (newLayer == this.layer) { return; }
+        if (!layout.hasSameCells(newLayer)) { throw new IllegalArgumentException("layer must have the same cells as the layout of the pad"); }
+        final KeyLayout oldLayer = this.layer;
+        this.layer = newLayer;
+        for (int i = 0 ; i < keys.size() ; i++) {
+            // all keys of a pad are created with their KeyCode as metaData
+            @SuppressWarnings("unchecked")
+            final Key<KeyCode> key      = (Key<KeyCode>) keys.get(i);
+            final String       oldLabel = key.getKeyText();
+            final String       newLabel = newLayer.getLabel(i);
+            if (!Objects.equals(oldLayer.getStyleClass(i), newLayer.getStyleClass(i))) {
+                if (null != oldLayer.getStyleClass(i)) { key.getStyleClass().remove(oldLayer.getStyleClass(i)); }
+                if (null != newLayer.getStyleClass(i)) { key.getStyleClass().add(newLayer.getStyleClass(i)); }
+            }
+            key.setMetaData(newLayer.getKeyCode(i));
+            key.setAutoRepeat(isRepeatable(newLayer.getKeyCode(i)));
+            if (oldLabel.equals(newLabel)) { continue; }
+            if (oldLabel.length() != newLabel.length() && null != fonts[i]) {
+                fonts[i] = keyFont(i, newLabel.length());
+                if (RenderMode.NODES == renderMode) { key.setFont(fonts[i]); }
+            }
+            key.setText(newLabel);
+            if (RenderMode.CANVAS == renderMode) { canvas.redrawKey(i); }
+        }
+        for (Runnable listener : layerListeners) { listener.run(); }
+    }
+
+    /**
+     * Called after setLayer() rebound the keys, e.g. to rebuild a KeyCode index
+     * (KeyboardBridge, key injection) or to re-evaluate the keys (EntryMask).
+     */
+    public void setOnLayerChanged(final Runnable listener) { if (null != listener) { layerListeners.add(listener); } }
+    public void removeOnLayerChanged(final Runnable listener) { layerListeners.remove(listener); }
+
+    public boolean isDelegatingInput() { return delegateInput; }
+
+    /**
+     * Loads the font, the default layout and the classes of the pad on a background
+     * thread. Call it as early as possible (e.g. in main() before Application.launch())
+     * so that this work overlaps with the toolkit startup instead of delaying the first
+     * frame. Calling it again returns the same future.
+     */
+    public static CompletableFuture<Void> preload() { return Preloader.PRELOADED; }
+
+    List<Key> getKeys() { return keys; }
+
+    // Presses or releases the given key incl. its pressed look (e.g. for a hardware keyboard), bypasses the PressFilter
+    // False if the press was not dispatched (e.g. the key is disabled)
+    boolean pressKey(final Key key, final boolean pressed) {
+        if (pressed && key.isDisabled()) { return false; }
+        setKeyPressedLook(key, pressed);
+        key.processKeyEvent(pressed ? KeyEventType.PRESSED : KeyEventType.RELEASED, 0);
+        return true;
+    }
+
+    // Touch presses go through the PressFilter, the look follows the key (pressed once its press is dispatched)
+    private void touchKey(final Key key, final boolean pressed) {
+        if (pressed && key.isDisabled()) { return; }
+        key.fireKeyEvent(pressed ? KeyEventType.PRESSED : KeyEventType.RELEASED, key.inputTime());
+        setKeyPressedLook(key, pressed);
+    }
+
+    void setKeyPressedLook(final Key key, final boolean pressed) {
+        if (RenderMode.CANVAS == renderMode) {
+            canvas.setPressed(key.getIndex(), pressed);
+        } else {
+            key.setVisualPressed(pressed);
+        }
+    }
+
+    // Disabled keys look greyed out and can't be pressed (e.g. keys an EntryMask doesn't accept)
+    void setKeyEnabled(final Key key, final boolean enabled) {
+        if (enabled != key.isDisabled()) { return; }
+        key.setDisable(!enabled);
+        if (RenderMode.CANVAS == renderMode) { canvas.redrawKey(key.getIndex()); }
     }
 
     private Key createKey(final String text) {
@@ -197,31 +464,219 @@ public class NumberPad extends Region {
     }
     private <T> Key createKey(final String text, final T metaData) { return createKey(text, "number-pad", metaData); }
     private <T> Key createKey(final String text, final String styleClass, final T metaData) {
-        Key<T> key = new Key<>(text, metaData);
+        // keys on a canvas or of a delegating pad get their input from the pad, keys on a canvas need no nodes
+        Key<T> key = new Key<>(text, metaData, !isDelegatingInput() && RenderMode.NODES == renderMode, true, RenderMode.NODES == renderMode);
+        key.setPadObservers(observers);
         if (null != styleClass && !styleClass.isEmpty()) { key.getStyleClass().add(styleClass); }
-        GridPane.setHalignment(key, HPos.CENTER);
-        GridPane.setValignment(key, VPos.CENTER);
+        key.setIndex(keys.size());
         keys.add(key);
         return key;
     }
 
 
+    // Index of the key at the given position (local coordinates), -1 for gaps and empty cells
+    int keyIndexAt(final double x, final double y) {
+        return layout.keyIndexAt(x - (getWidth() - width) * 0.5, y - (getHeight() - height) * 0.5, cellWidth, cellHeight, horizontalGap, verticalGap);
+    }
+
+    /*
+     * Every touch point is tracked by its id: a key is pressed as long as at least one
+     * touch point is on it, sliding from one key to another releases the first key and
+     * presses the other one. Touch points that are missing in the touch point set of an
+     * event (e.g. lost by the platform) are released as well. Only used with delegated
+     * input or on a canvas (package-private for tests on platforms without multi-touch).
+     */
+    void handleTouch(final TouchEvent e) {
+        if (null == touches) { touches = new TouchTracker(MAX_TOUCH_POINTS); }
+        final TouchPoint point = e.getTouchPoint();
+        final int        id    = point.getId();
+        // a new touch point can't be tracked yet, so one tracked point less fits into the event
+        if (touches.size() > (touches.contains(id) ? e.getTouchCount() : e.getTouchCount() - 1)) { releaseStaleTouches(e); }
+        final EventType<TouchEvent> type = e.getEventType();
+        if (TouchEvent.TOUCH_PRESSED == type) {
+            touchDown(id, keyIndexAt(point.getX(), point.getY()));
+        } else if (TouchEvent.TOUCH_MOVED == type) {
+            final int keyIndex = keyIndexAt(point.getX(), point.getY());
+            if (!touches.contains(id)) {
+                touchDown(id, keyIndex);
+            } else if (keyIndex != touches.getKeyIndex(id)) {
+                touchUp(id);
+                touchDown(id, keyIndex);
+            }
+        } else if (TouchEvent.TOUCH_RELEASED == type) {
+            touchUp(id);
+        }
+    }
+
+    private void touchDown(final int id, final int keyIndex) {
+        if (keyIndex >= 0 && keys.get(keyIndex).isDisabled()) {
+            touches.put(id, -1);
+            return;
+        }
+        touches.put(id, keyIndex);
+        if (keyIndex >= 0 && !touches.isKeyTouched(keyIndex, id)) { touchKey(keys.get(keyIndex), true); }
+    }
+
+    private void touchUp(final int id) {
+        final int keyIndex = touches.remove(id);
+        if (keyIndex >= 0 && !touches.isKeyTouched(keyIndex, id)) { touchKey(keys.get(keyIndex), false); }
+    }
+
+    private void releaseStaleTouches(final TouchEvent e) {
+        final List<TouchPoint> points = e.getTouchPoints();
+        for (int i = touches.size() - 1 ; i >= 0 ; i--) {
+            final int id    = touches.idAt(i);
+            boolean   found = false;
+            for (int p = 0 ; p < points.size() && !found ; p++) { found = points.get(p).getId() == id; }
+            if (!found) { touchUp(id); }
+        }
+    }
+
+    private void releaseAllTouches() {
+        if (null == touches) { return; }
+        while (touches.size() > 0) { touchUp(touches.idAt(touches.size() - 1)); }
+    }
+
+    private KeyInjector getInjector() {
+        KeyInjector keyInjector = injector;
+        if (null == keyInjector) {
+            synchronized (this) {
+                keyInjector = injector;
+                if (null == keyInjector) {
+                    keyInjector = new KeyInjector(this, KeyInjector.DEFAULT_CAPACITY);
+                    injector    = keyInjector;
+                    setOnLayerChanged(keyInjector::reindex);
+                }
+            }
+        }
+        return keyInjector;
+    }
+
+    // The KeyCode of the key for the given char, null if there is none
+    static KeyCode toKeyCode(final char c) {
+        if (c >= '0' && c <= '9') { return DIGITS[c - '0']; }
+        switch (c) {
+            case '.': return KeyCode.PERIOD;
+            case ',': return KeyCode.COMMA;
+            case '+': return KeyCode.ADD;
+            case '-': return KeyCode.SUBTRACT;
+            case '*': return KeyCode.MULTIPLY;
+            case '#': return KeyCode.NUMBER_SIGN;
+            default : return null;
+        }
+    }
+
+    // The key of this pad that contains the given event target (e.g. the text of a key)
+    private Key keyOf(final Object target) {
+        for (Node node = target instanceof Node ? (Node) target : null ; null != node && node != this ; node = node.getParent()) {
+            if (node instanceof Key && node.getParent() == this) { return (Key) node; }
+        }
+        return null;
+    }
+
+
     // ******************** Resizing ******************************************
-    private void resize() {
+    // One layout pass per pulse: the cell size and the fonts of all keys are computed
+    // here once and pushed down to the keys which are then placed arithmetically
+    @Override protected void layoutChildren() {
         width  = getWidth() - getInsets().getLeft() - getInsets().getRight();
         height = getHeight() - getInsets().getTop() - getInsets().getBottom();
 
         if (width > 0 && height > 0) {
-            pane.setMaxSize(width, height);
-            pane.setPrefSize(width, height);
-            pane.relocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5);
+            final double  offsetX       = (getWidth() - width) * 0.5;
+            final double  offsetY       = (getHeight() - height) * 0.5;
+            final int     columns       = layout.getColumns();
+            final int     rows          = layout.getRows();
+            final double  newCellWidth  = (width - (columns - 1) * horizontalGap) / columns;
+            final double  newCellHeight = (height - (rows - 1) * verticalGap) / rows;
+            final boolean cellsChanged  = Double.compare(newCellWidth, cellWidth) != 0 || Double.compare(newCellHeight, cellHeight) != 0;
+            if (cellsChanged) {
+                cellWidth  = newCellWidth;
+                cellHeight = newCellHeight;
+                adjustTextSize();
+            }
+            if (RenderMode.CANVAS == renderMode) {
+                canvas.relocate(offsetX, offsetY);
+                if (cellsChanged) { canvas.layoutKeys(width, height, cellWidth, cellHeight, horizontalGap, verticalGap, fonts); }
+            } else {
+                for (int i = 0 ; i < keys.size() ; i++) {
+                    final int columnSpan = layout.getColumnSpan(i);
+                    final int rowSpan    = layout.getRowSpan(i);
+                    keys.get(i).resizeRelocate(offsetX + layout.getColumn(i) * (cellWidth + horizontalGap),
+                                               offsetY + layout.getRow(i) * (cellHeight + verticalGap),
+                                               columnSpan * cellWidth + (columnSpan - 1) * horizontalGap,
+                                               rowSpan * cellHeight + (rowSpan - 1) * verticalGap);
+                }
+            }
         }
     }
 
+    // Fits the fonts of all keys to the cell size, not private so LayoutBenchmark can count the calls
+    void adjustTextSize() {
+        if (cellWidth <= 0 || cellHeight <= 0) { return; }
+        uniformFont = Fonts.robotoMonoRegular(Math.min(Math.min(cellWidth, cellHeight) * 0.5, Fonts.robotoMonoRegularFittingSize(cellWidth * 0.9, cellHeight * 0.9, 3)));
+        for (int i = 0 ; i < keys.size() ; i++) {
+            fonts[i] = keyFont(i, keys.get(i).getKeyText().length());
+            if (RenderMode.NODES == renderMode) { keys.get(i).setFont(fonts[i]); }
+        }
+    }
 
-    // ******************** Style related *************************************
-    @Override public String getUserAgentStylesheet() {
-        if (null == userAgentStyleSheet) { userAgentStyleSheet = Key.class.getResource(CSS_FILE).toExternalForm(); }
-        return userAgentStyleSheet;
+    // Single cell keys with up to 3 chars share one font, all others are fitted to their size
+    private Font keyFont(final int index, final int length) {
+        final int columnSpan = layout.getColumnSpan(index);
+        final int rowSpan    = layout.getRowSpan(index);
+        if (1 == columnSpan && 1 == rowSpan && length <= 3) { return uniformFont; }
+        final double keyWidth  = columnSpan * cellWidth + (columnSpan - 1) * horizontalGap;
+        final double keyHeight = rowSpan * cellHeight + (rowSpan - 1) * verticalGap;
+        return Fonts.robotoMonoRegular(Math.min(Math.min(cellWidth, cellHeight) * 0.5, Fonts.robotoMonoRegularFittingSize(keyWidth * 0.9, keyHeight * 0.9, length)));
+    }
+
+    private static boolean isRepeatable(final KeyCode keyCode) {
+        switch (keyCode) {
+            case BACK_SPACE:
+            case DELETE:
+            case UP:
+            case DOWN:
+            case LEFT:
+            case RIGHT: return true;
+            default   : return false;
+        }
+    }
+
+    private void invalidateBakedImages() {
+        if (baked) { keys.forEach(Key::invalidateBakedImages); }
+    }
+
+    private void invalidateCells() {
+        cellWidth  = 0;
+        cellHeight = 0;
+        requestLayout();
+    }
+
+
+    // ******************** Inner Classes *************************************
+    // Holder idiom, the preload thread is started on first access only
+    private static class Preloader {
+        private static final Class<?>[]              CLASSES   = { Key.class, KeyEvent.class, KeyEventType.class, KeyCanvas.class };
+        private static final CompletableFuture<Void> PRELOADED = CompletableFuture.runAsync(Preloader::load, runnable -> {
+            final Thread thread = new Thread(runnable, "NumberPad-Preload");
+            thread.setDaemon(true);
+            thread.start();
+        });
+
+        private static void load() {
+            Fonts.robotoMonoRegular(12);
+            KeyLayout.NUMBER_PAD.getKeyCount();
+            try {
+                // class literals don't run the static initializers, forName does
+                for (Class<?> clazz : CLASSES) { Class.forName(clazz.getName(), true, clazz.getClassLoader()); }
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
     }
+
+
+    // ******************** Style related *************************************
+    @Override public String getUserAgentStylesheet() { return USER_AGENT_CSS; }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * The observers of a Key or of a whole NumberPad. They are kept in one array per
+ * KeyEventType which will be replaced on every registration change (copy-on-write),
+ * so dispatching an event doesn't allocate. Observers that are only interested in
+ * some keys are indexed by KeyCode and type, so an event only visits the observers
+ * of its key no matter how many others are registered.
+ */
+class ObserverRegistry {
+    private static final KeyEventObserver[]                         NO_OBSERVERS = {};
+    private volatile     KeyEventObserver[][]                       observers;
+    // one map per KeyEventType (null if the type has no subscriptions), replaced on every change
+    private volatile     List<EnumMap<KeyCode, KeyEventObserver[]>> filtered;
+
+
+    // ******************** Constructors **************************************
+    ObserverRegistry() {
+        observers = new KeyEventObserver[KeyEventType.values().length][];
+        Arrays.fill(observers, NO_OBSERVERS);
+    }
+
+
+    // ******************** Methods *******************************************
+    KeyEventObserver[] get(final KeyEventType type) { return observers[type.ordinal()]; }
+
+    synchronized void add(final KeyEventObserver observer, final KeyEventType type) {
+        if (null == observer || contains(observer, type)) { return; }
+        append(observer, type);
+    }
+
+    synchronized void remove(final KeyEventObserver observer, final KeyEventType type) {
+        final KeyEventObserver[][] newObservers = observers.clone();
+        newObservers[type.ordinal()] = without(newObservers[type.ordinal()], observer);
+        observers = newObservers;
+    }
+
+    synchronized void removeAll() {
+        KeyEventObserver[][] newObservers = new KeyEventObserver[observers.length][];
+        Arrays.fill(newObservers, NO_OBSERVERS);
+        observers = newObservers;
+        filtered  = null;
+    }
+
+    boolean contains(final KeyEventObserver observer, final KeyEventType type) {
+        for (KeyEventObserver o : observers[type.ordinal()]) {
+            if (o.equals(observer)) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the observer for events of the given type of keys with one of the given
+     * key codes (all keys if empty). Other than add() an observer can be subscribed
+     * more than once, every subscription has to be removed on its own.
+     */
+    synchronized void subscribe(final KeyEventObserver observer, final KeyEventType type, final Set<KeyCode> keyCodes) {
+        if (keyCodes.isEmpty()) {
+            append(observer, type);
+            return;
+        }
+        final List<EnumMap<KeyCode, KeyEventObserver[]>> newFiltered = null == filtered ? new ArrayList<>(Collections.nCopies(KeyEventType.values().length, null)) : new ArrayList<>(filtered);
+        final EnumMap<KeyCode, KeyEventObserver[]>       byKeyCode   = null == newFiltered.get(type.ordinal()) ? new EnumMap<>(KeyCode.class) : new EnumMap<>(newFiltered.get(type.ordinal()));
+        for (KeyCode keyCode : keyCodes) {
+            final KeyEventObserver[] keyObservers    = byKeyCode.getOrDefault(keyCode, NO_OBSERVERS);
+            final KeyEventObserver[] newKeyObservers = Arrays.copyOf(keyObservers, keyObservers.length + 1);
+            newKeyObservers[keyObservers.length] = observer;
+            byKeyCode.put(keyCode, newKeyObservers);
+        }
+        newFiltered.set(type.ordinal(), byKeyCode);
+        filtered = newFiltered;
+    }
+
+    synchronized void unsubscribe(final KeyEventObserver observer, final KeyEventType type, final Set<KeyCode> keyCodes) {
+        if (keyCodes.isEmpty()) {
+            remove(observer, type);
+            return;
+        }
+        if (null == filtered || null == filtered.get(type.ordinal())) { return; }
+        final List<EnumMap<KeyCode, KeyEventObserver[]>> newFiltered = new ArrayList<>(filtered);
+        final EnumMap<KeyCode, KeyEventObserver[]>       byKeyCode   = new EnumMap<>(newFiltered.get(type.ordinal()));
+        for (KeyCode keyCode : keyCodes) {
+            final KeyEventObserver[] keyObservers = without(byKeyCode.getOrDefault(keyCode, NO_OBSERVERS), observer);
+            if (0 == keyObservers.length) {
+                byKeyCode.remove(keyCode);
+            } else {
+                byKeyCode.put(keyCode, keyObservers);
+            }
+        }
+        newFiltered.set(type.ordinal(), byKeyCode.isEmpty() ? null : byKeyCode);
+        filtered = newFiltered;
+    }
+
+    void notifyObservers(final KeyEvent evt, final KeyStatistics stats) {
+        final int type = evt.getType().ordinal();
+        notifyObservers(observers[type], evt, stats);
+        final List<EnumMap<KeyCode, KeyEventObserver[]>> filtered = this.filtered;
+        if (null == filtered || null == filtered.get(type)) { return; }
+        final Object metaData = evt.getKey().getMetaData();
+        if (!(metaData instanceof KeyCode)) { return; }
+        final KeyEventObserver[] keyObservers = filtered.get(type).get(metaData);
+        if (null != keyObservers) { notifyObservers(keyObservers, evt, stats); }
+    }
+
+    private static void notifyObservers(final KeyEventObserver[] typeObservers, final KeyEvent evt, final KeyStatistics stats) {
+        if (null == stats || !stats.isEnabled()) {
+            for (int i = 0 ; i < typeObservers.length ; i++) { typeObservers[i].onKeyEvent(evt); }
+        } else {
+            for (int i = 0 ; i < typeObservers.length ; i++) {
+                final long start = System.nanoTime();
+                typeObservers[i].onKeyEvent(evt);
+                stats.recordObserver(typeObservers[i], System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void append(final KeyEventObserver observer, final KeyEventType type) {
+        KeyEventObserver[][] newObservers     = observers.clone();
+        KeyEventObserver[]   typeObservers    = newObservers[type.ordinal()];
+        KeyEventObserver[]   newTypeObservers = Arrays.copyOf(typeObservers, typeObservers.length + 1);
+        newTypeObservers[typeObservers.length] = observer;
+        newObservers[type.ordinal()] = newTypeObservers;
+        observers = newObservers;
+    }
+
+    // Returns the given observers without the first occurrence of the given observer
+    private static KeyEventObserver[] without(final KeyEventObserver[] typeObservers, final KeyEventObserver observer) {
+        for (int i = 0 ; i < typeObservers.length ; i++) {
+            if (typeObservers[i].equals(observer)) {
+                if (1 == typeObservers.length) { return NO_OBSERVERS; }
+                KeyEventObserver[] newTypeObservers = new KeyEventObserver[typeObservers.length - 1];
+                System.arraycopy(typeObservers, 0, newTypeObservers, 0, i);
+                System.arraycopy(typeObservers, i + 1, newTypeObservers, i, typeObservers.length - i - 1);
+                return newTypeObservers;
+            }
+        }
+        return typeObservers;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Filters bouncing and phantom presses (e.g. of resistive touch screens) before
+ * they are dispatched to the observers. Three rules can be configured, 0 switches
+ * a rule off:
+ * <ul>
+ *   <li>debounce: a press within the given time after the release of the same key is rejected</li>
+ *   <li>minimum press duration: a press is only dispatched once the key was held for the given time,
+ *       shorter presses are rejected</li>
+ *   <li>neighbour suppression: a press within the given time after a press on an adjacent key is rejected</li>
+ * </ul>
+ * The release (and the repeats) of a rejected press are dropped as well. Only mouse and
+ * touch presses are filtered, injected keys (KeyInjector) and hardware keys (KeyboardBridge)
+ * bypass the filter. A key only looks pressed once its press is dispatched. The state is
+ * kept in primitive arrays indexed by key, filtering doesn't allocate.
+ * Must only be used on the FX thread.
+ */
+public class PressFilter {
+    private final List<? extends Key> keys;
+    private final KeyLayout           layout;
+    private final IntConsumer         redraw;
+    private final long[]              lastPress;
+    private final long[]              lastRelease;
+    private final long[]              pendingSince;
+    private final boolean[]           down;
+    private final boolean[]           rejected;
+    private       long                debounceNanos;
+    private       long                minimumPressDurationNanos;
+    private       long                neighbourSuppressionNanos;
+    private       int                 pendingCount;
+    private       AnimationTimer      pendingTimer;
+    private       boolean             pendingTimerRunning;
+    private       long                debounceRejections;
+    private       long                minimumPressDurationRejections;
+    private       long                neighbourRejections;
+
+
+    // ******************** Constructors **************************************
+    // The keys of a canvas pad are redrawn by the given consumer when their press is dispatched, null for keys that are nodes
+    PressFilter(final List<? extends Key> keys, final KeyLayout layout, final IntConsumer redraw) {
+        this.keys         = keys;
+        this.layout       = layout;
+        this.redraw       = redraw;
+        this.lastPress    = new long[keys.size()];
+        this.lastRelease  = new long[keys.size()];
+        this.pendingSince = new long[keys.size()];
+        this.down         = new boolean[keys.size()];
+        this.rejected     = new boolean[keys.size()];
+    }
+
+
+    // ******************** Methods *******************************************
+    public long getDebounce() { return TimeUnit.NANOSECONDS.toMillis(debounceNanos); }
+    public void setDebounce(final long debounce) { debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounce)); }
+
+    public long getMinimumPressDuration() { return TimeUnit.NANOSECONDS.toMillis(minimumPressDurationNanos); }
+    public void setMinimumPressDuration(final long minimumPressDuration) { minimumPressDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minimumPressDuration)); }
+
+    public long getNeighbourSuppression() { return TimeUnit.NANOSECONDS.toMillis(neighbourSuppressionNanos); }
+    public void setNeighbourSuppression(final long neighbourSuppression) { neighbourSuppressionNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, neighbourSuppression)); }
+
+    // Number of presses rejected by each rule
+    public long getDebounceRejections() { return debounceRejections; }
+    public long getMinimumPressDurationRejections() { return minimumPressDurationRejections; }
+    public long getNeighbourRejections() { return neighbourRejections; }
+
+    public void resetCounters() {
+        debounceRejections             = 0;
+        minimumPressDurationRejections = 0;
+        neighbourRejections            = 0;
+    }
+
+    // Returns true if the event of the key with the given index should be dispatched now
+    boolean accept(final int index, final KeyEventType type) {
+        final long now = System.nanoTime();
+        switch (type) {
+            case PRESSED : return acceptPress(index, now);
+            case RELEASED: return acceptRelease(index, now);
+            default      : return down[index];
+        }
+    }
+
+    private boolean acceptPress(final int index, final long now) {
+        if (down[index] || 0 != pendingSince[index]) { return false; }
+        if (debounceNanos > 0 && 0 != lastRelease[index] && now - lastRelease[index] < debounceNanos) {
+            debounceRejections++;
+            rejected[index] = true;
+            return false;
+        }
+        if (neighbourSuppressionNanos > 0 && isNeighbourPressed(index, now)) {
+            neighbourRejections++;
+            rejected[index] = true;
+            return false;
+        }
+        lastPress[index] = now;
+        rejected[index]  = false;
+        if (minimumPressDurationNanos > 0) {
+            pendingSince[index] = now;
+            pendingCount++;
+            startPendingTimer();
+            return false;
+        }
+        down[index] = true;
+        return true;
+    }
+
+    private boolean acceptRelease(final int index, final long now) {
+        if (0 != pendingSince[index]) {
+            // released before the minimum press duration, the press was never dispatched
+            pendingSince[index] = 0;
+            pendingCount--;
+            minimumPressDurationRejections++;
+            lastRelease[index] = now;
+            return false;
+        }
+        if (rejected[index]) {
+            rejected[index] = false;
+            return false;
+        }
+        if (!down[index]) { return false; }
+        down[index]        = false;
+        lastRelease[index] = now;
+        return true;
+    }
+
+    private boolean isNeighbourPressed(final int index, final long now) {
+        for (int i = 0 ; i < lastPress.length ; i++) {
+            if (i != index && 0 != lastPress[i] && now - lastPress[i] < neighbourSuppressionNanos && isNeighbour(index, i)) { return true; }
+        }
+        return false;
+    }
+
+    // Keys are neighbours if their cells touch, also diagonally
+    private boolean isNeighbour(final int a, final int b) {
+        final int gapX = Math.max(layout.getColumn(a), layout.getColumn(b)) - Math.min(layout.getColumn(a) + layout.getColumnSpan(a), layout.getColumn(b) + layout.getColumnSpan(b));
+        final int gapY = Math.max(layout.getRow(a), layout.getRow(b)) - Math.min(layout.getRow(a) + layout.getRowSpan(a), layout.getRow(b) + layout.getRowSpan(b));
+        return gapX <= 0 && gapY <= 0;
+    }
+
+    // Dispatches the pending presses that are held long enough
+    private void dispatchPending(final long now) {
+        for (int i = 0 ; i < pendingSince.length && pendingCount > 0 ; i++) {
+            if (0 != pendingSince[i] && now - pendingSince[i] >= minimumPressDurationNanos) {
+                pendingSince[i] = 0;
+                pendingCount--;
+                down[i] = true;
+                final Key key = keys.get(i);
+                key.setPressFiltered(false);
+                if (null != redraw) { redraw.accept(i); }
+                key.processKeyEvent(KeyEventType.PRESSED, 0);
+            }
+        }
+        if (0 == pendingCount) {
+            pendingTimer.stop();
+            pendingTimerRunning = false;
+        }
+    }
+
+    private void startPendingTimer() {
+        if (null == pendingTimer) {
+            pendingTimer = new AnimationTimer() {
+                @Override public void handle(final long now) { dispatchPending(System.nanoTime()); }
+            };
+        }
+        if (!pendingTimerRunning) {
+            pendingTimerRunning = true;
+            pendingTimer.start();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Pre-allocated bounded single producer single consumer ring buffer (the capacity
+ * is rounded up to a power of two). Only the producer (the FX thread) adds items,
+ * only the consumer (the drain task on an executor) takes them, but both may move
+ * the head: the producer drops the oldest item when the buffer is full, so the
+ * consumer claims an item by a CAS on the head and skips items that were dropped.
+ * Used by AsyncDispatcher and KeyEventPublisher.
+ */
+final class RingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int                     mask;
+    private final AtomicLong              head;
+    private final AtomicLong              tail;
+
+
+    // ******************** Constructors **************************************
+    RingBuffer(final int capacity) {
+        if (capacity < 2) { throw new IllegalArgumentException("capacity must be >= 2"); }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask  = size - 1;
+        this.head  = new AtomicLong();
+        this.tail  = new AtomicLong();
+    }
+
+
+    // ******************** Methods *******************************************
+    int getCapacity() { return slots.length(); }
+
+    long size() { return Math.max(0, tail.get() - head.get()); }
+
+    boolean isEmpty() { return head.get() >= tail.get(); }
+
+    // The number of items that have been added so far
+    long getAdded() { return tail.get(); }
+
+    // Producer: false if the buffer is full
+    boolean offer(final T item) {
+        final long t = tail.get();
+        if (t - head.get() >= slots.length()) { return false; }
+        slots.set((int) (t & mask), item);
+        tail.set(t + 1);
+        return true;
+    }
+
+    // Producer: drops the oldest item, false if the consumer took it in the meantime
+    boolean dropOldest() {
+        final long h = head.get();
+        return h < tail.get() && head.compareAndSet(h, h + 1);
+    }
+
+    // Producer: the item that was added last, null if the buffer is empty
+    T peekNewest() {
+        final long t = tail.get();
+        return t > head.get() ? slots.get((int) ((t - 1) & mask)) : null;
+    }
+
+    // Consumer: the oldest item or null if the buffer is empty
+    T poll() {
+        long h;
+        while ((h = head.get()) < tail.get()) {
+            final T item = slots.get((int) (h & mask));
+            // the producer might have dropped this item in the meantime
+            if (head.compareAndSet(h, h + 1)) { return item; }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.numberpad;
+
+import java.util.Arrays;
+
+
+/**
+ * The active touch points of a NumberPad, maps touch point ids to the index of the
+ * key they are on (-1 if the touch point is on a gap or outside of the keys). Kept
+ * in two primitive arrays that are scanned linearly, there are only a few fingers.
+ */
+class TouchTracker {
+    private int[] ids;
+    private int[] keyIndices;
+    private int   size;
+
+
+    // ******************** Constructors **************************************
+    TouchTracker(final int capacity) {
+        ids        = new int[capacity];
+        keyIndices = new int[capacity];
+    }
+
+
+    // ******************** Methods *******************************************
+    int size() { return size; }
+
+    int idAt(final int i) { return ids[i]; }
+
+    boolean contains(final int id) { return indexOf(id) >= 0; }
+
+    // Index of the key the given touch point is on, -1 if it's not tracked or not on a key
+    int getKeyIndex(final int id) {
+        final int i = indexOf(id);
+        return i < 0 ? -1 : keyIndices[i];
+    }
+
+    void put(final int id, final int keyIndex) {
+        int i = indexOf(id);
+        if (i < 0) {
+            if (size == ids.length) {
+                ids        = Arrays.copyOf(ids, size * 2);
+                keyIndices = Arrays.copyOf(keyIndices, size * 2);
+            }
+            i = size++;
+            ids[i] = id;
+        }
+        keyIndices[i] = keyIndex;
+    }
+
+    // Removes the given touch point and returns the index of the key it was on
+    int remove(final int id) {
+        final int i = indexOf(id);
+        if (i < 0) { return -1; }
+        final int keyIndex = keyIndices[i];
+        size--;
+        ids[i]        = ids[size];
+        keyIndices[i] = keyIndices[size];
+        return keyIndex;
+    }
+
+    // True if another touch point than the given one is on the given key
+    boolean isKeyTouched(final int keyIndex, final int exceptId) {
+        for (int i = 0 ; i < size ; i++) {
+            if (keyIndices[i] == keyIndex && ids[i] != exceptId) { return true; }
+        }
+        return false;
+    }
+
+    private int indexOf(final int id) {
+        for (int i = 0 ; i < size ; i++) {
+            if (ids[i] == id) { return i; }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+class AsyncDispatcherTest {
+    private static final int CAPACITY = 4;
+    // collects the drain tasks, they run when the test calls drain()
+    private final Queue<Runnable> tasks    = new ArrayDeque<>();
+    private final Executor        executor = tasks::add;
+    private final List<KeyEvent>  received = new ArrayList<>();
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void keepsTheOrder() {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(executor, CAPACITY, OverflowPolicy.DROP_OLDEST);
+        final KeyEvent[]      events     = { event("1", KeyEventType.PRESSED), event("1", KeyEventType.RELEASED), event("2", KeyEventType.PRESSED) };
+        for (KeyEvent evt : events) { dispatcher.publish(evt); }
+        drain();
+        assertEquals(List.of(events), received);
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(3, dispatcher.getMaxQueueDepth());
+    }
+
+    @Test void dropOldestKeepsTheNewestEvents() {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(executor, CAPACITY, OverflowPolicy.DROP_OLDEST);
+        final List<KeyEvent>  events     = new ArrayList<>();
+        for (int i = 0 ; i < CAPACITY + 2 ; i++) { events.add(event(Integer.toString(i), KeyEventType.PRESSED)); }
+        events.forEach(dispatcher::publish);
+        drain();
+        assertEquals(events.subList(2, events.size()), received);
+        assertEquals(2, dispatcher.getDroppedEvents());
+    }
+
+    @Test void coalesceDropsARepeatOfTheNewestEvent() {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(executor, CAPACITY, OverflowPolicy.COALESCE);
+        final List<KeyEvent>  events     = new ArrayList<>();
+        for (int i = 0 ; i < CAPACITY ; i++) { events.add(event(Integer.toString(i), KeyEventType.REPEAT)); }
+        events.forEach(dispatcher::publish);
+        final KeyEvent newest = events.get(CAPACITY - 1);
+        dispatcher.publish(newest);
+        dispatcher.publish(new KeyEvent(newest.getKey(), KeyEventType.REPEAT));
+        drain();
+        assertEquals(events, received);
+        assertEquals(2, dispatcher.getDroppedEvents());
+    }
+
+    @Test void coalesceDropsTheOldestEventForOtherEvents() {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(executor, CAPACITY, OverflowPolicy.COALESCE);
+        final List<KeyEvent>  events     = new ArrayList<>();
+        for (int i = 0 ; i < CAPACITY ; i++) { events.add(event(Integer.toString(i), KeyEventType.PRESSED)); }
+        events.forEach(dispatcher::publish);
+        // same key but another type, must not replace the pending press
+        final KeyEvent release = new KeyEvent(events.get(CAPACITY - 1).getKey(), KeyEventType.RELEASED);
+        dispatcher.publish(release);
+        drain();
+        assertEquals(CAPACITY, received.size());
+        assertSame(events.get(1), received.get(0));
+        assertSame(events.get(CAPACITY - 1), received.get(CAPACITY - 2));
+        assertSame(release, received.get(CAPACITY - 1));
+        assertEquals(1, dispatcher.getDroppedEvents());
+    }
+
+    private KeyEvent event(final String text, final KeyEventType type) {
+        final Key<String>      key      = new Key<>(text);
+        final KeyEventObserver observer = received::add;
+        key.setOnKeyPressed(observer);
+        key.setOnKeyReleased(observer);
+        key.setOnKeyRepeated(observer);
+        return new KeyEvent(key, type);
+    }
+
+    private void drain() {
+        Runnable task;
+        while (null != (task = tasks.poll())) { task.run(); }
+    }
+}
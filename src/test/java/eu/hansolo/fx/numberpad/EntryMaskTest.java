@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class EntryMaskTest {
+    private static final String KEYS = "0123456789.-+";
+
+
+    /*
+     * Every row is { spec, typed keys, resulting entry, complete, keys accepted afterwards }.
+     * Rejected keys are skipped, so the entry shows which of the typed keys were accepted.
+     */
+    @Test void acceptAndCompleteTable() {
+        final String[][] table = {
+            { "#{4}",                            "",            "",            "false", "0123456789" },
+            { "#{4}",                            "12",          "12",          "false", "0123456789" },
+            { "#{4}",                            "12345",       "1234",        "true",  "" },
+            { "#{1,9}.##",                       ".",           "",            "false", "0123456789" },
+            { "#{1,9}.##",                       "12.3",        "12.3",        "false", "0123456789" },
+            { "#{1,9}.##",                       "12.345",      "12.34",       "true",  "" },
+            { "#{1,9}.##",                       "123456789",   "123456789",   "false", "0123456789." },
+            { "#{1,9}.##",                       "1234567890",  "123456789.0", "false", "0123456789" },
+            { "[0-255].[0-255].[0-255].[0-255]", "192.168.0.1", "192.168.0.1", "true",  "0123456789" },
+            { "[0-255].[0-255].[0-255].[0-255]", "2561",        "25.61",       "false", "0123456789." },
+            { "[0-255].[0-255].[0-255].[0-255]", "0",           "0",           "false", "0123456789." },
+            { "[0-255].[0-255].[0-255].[0-255]", "01",          "0.1",         "false", "0123456789." },
+            { "[0-255].[0-255].[0-255].[0-255]", "255255",      "255.255",     "false", "0123456789." },
+            { "[0-65535]",                       "0",           "0",           "true",  "" },
+            { "[0-65535]",                       "65536",       "6553",        "true",  "012345" },
+            { "[5-255]",                         "",            "",            "false", "123456789" },
+            { "[5-255]",                         "0",           "",            "false", "123456789" },
+            { "[5-255]",                         "4",           "4",           "false", "0123456789" },
+            { "[5-255]",                         "40",          "40",          "true",  "" },
+            { "[5-255]",                         "26",          "26",          "true",  "" },
+            { "[5-255]",                         "25",          "25",          "true",  "012345" },
+            { "[10-19]",                         "2",           "",            "false", "1" },
+            { "[1-9]",                           "0",           "",            "false", "123456789" },
+            { "+#{2}-#",                         "123",         "+12-3",       "true",  "" },
+            { "\\##",                            "#7",          "#7",          "true",  "" }
+        };
+        for (String[] row : table) {
+            final EntryMask mask = new EntryMask(row[0]);
+            for (char c : row[1].toCharArray()) { mask.type(c); }
+            final String name = row[0] + " after '" + row[1] + "'";
+            assertEquals(row[2], mask.toString(), name);
+            assertEquals(Boolean.parseBoolean(row[3]), mask.isComplete(), name + " complete");
+            assertEquals(row[4], acceptedKeys(mask), name + " accepted keys");
+        }
+    }
+
+    // Every accepted key has to keep a valid entry reachable, there must be no dead ends
+    @Test void noDeadEnds() {
+        for (String spec : List.of("[5-255]", "[0-255].[0-255]", "[10-19]", "[100-120]", "[7-7]", "#{1,3}.#{2}", "[1-12]/[0-99]",
+                                   "$ #{1,6}", "(###) ###", "##%", "#{1,6} EUR")) {
+            assertNoDeadEnd(new EntryMask(spec), spec);
+        }
+    }
+
+    @Test void keys() {
+        final EntryMask mask = new EntryMask("#{1,3}.#");
+        assertFalse(mask.accepts(KeyCode.ENTER));
+        assertFalse(mask.accepts(KeyCode.BACK_SPACE));
+        assertFalse(mask.accepts(KeyCode.LEFT));
+        assertTrue(mask.accepts(KeyCode.CANCEL));
+        assertTrue(mask.handle(KeyCode.NUMPAD4));
+        assertTrue(mask.handle(KeyCode.DIGIT2));
+        assertFalse(mask.handle(KeyCode.SEPARATOR) && mask.handle(KeyCode.PERIOD));
+        assertTrue(mask.handle(KeyCode.NUMPAD7));
+        assertEquals("42.7", mask.toString());
+        assertTrue(mask.accepts(KeyCode.ENTER));
+        assertEquals(42, mask.getFieldValue(0));
+        assertEquals(2, mask.getFieldLength(0));
+        assertEquals(7, mask.getFieldValue(1));
+        assertTrue(mask.handle(KeyCode.CLEAR));
+        assertEquals(0, mask.length());
+        assertEquals(0, mask.getFieldValue(0));
+    }
+
+    @Test void runsOfLiterals() {
+        final EntryMask phone = new EntryMask("(###) ###");
+        for (char c : "123456".toCharArray()) { assertTrue(phone.type(c)); }
+        assertEquals("(123) 456", phone.toString());
+        assertTrue(phone.isComplete());
+        assertTrue(phone.backspace());
+        assertTrue(phone.backspace());
+        assertTrue(phone.backspace());
+        assertEquals("(123", phone.toString());
+
+        final EntryMask price = new EntryMask("#{1,6} EUR");
+        assertFalse(price.isComplete());
+        assertTrue(price.type('9'));
+        assertTrue(price.isComplete());
+        assertEquals(9, price.getFieldValue(0));
+
+        final EntryMask dollar = new EntryMask("$ #{1,6}");
+        assertTrue(dollar.accepts(KeyCode.NUMPAD5));
+        assertTrue(dollar.type('5'));
+        assertEquals("$ 5", dollar.toString());
+        assertTrue(dollar.backspace());
+        assertEquals(0, dollar.length());
+    }
+
+    @Test void backspaceRemovesInsertedLiterals() {
+        final EntryMask mask = new EntryMask("[0-255].[0-255]");
+        for (char c : "2557".toCharArray()) { mask.type(c); }
+        assertEquals("255.7", mask.toString());
+        assertTrue(mask.backspace());
+        assertEquals("255", mask.toString());
+        assertTrue(mask.backspace());
+        assertEquals("25", mask.toString());
+        // a literal typed by hand is removed on its own
+        mask.type('.');
+        assertTrue(mask.backspace());
+        assertEquals("25", mask.toString());
+    }
+
+    @Test void charSequence() {
+        final EntryMask mask = new EntryMask("#{3}");
+        mask.type('1');
+        mask.type('2');
+        assertEquals(2, mask.length());
+        assertEquals('2', mask.charAt(1));
+        assertEquals("2", mask.subSequence(1, 2).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> mask.charAt(2));
+    }
+
+    @Test void invalidSpecs() {
+        for (String spec : new String[] { null, "", "#{", "#{3,1}", "#{0}", "#{a}", "[5-1]", "[a-b]", "[5]", "[1-9999999999999999999]" }) {
+            assertThrows(IllegalArgumentException.class, () -> new EntryMask(spec), spec);
+        }
+    }
+
+    @Test void attachDisablesKeysThatCantBeTyped() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = new NumberPad();
+            final EntryMask mask      = new EntryMask("[5-255]");
+            mask.attach(numberPad);
+            assertTrue(key(numberPad, KeyCode.NUMPAD0).isDisabled());
+            assertFalse(key(numberPad, KeyCode.NUMPAD5).isDisabled());
+            assertTrue(key(numberPad, KeyCode.ENTER).isDisabled());
+            assertFalse(key(numberPad, KeyCode.CANCEL).isDisabled());
+
+            numberPad.pressKey(key(numberPad, KeyCode.NUMPAD2), true);
+            numberPad.pressKey(key(numberPad, KeyCode.NUMPAD2), false);
+            assertEquals("2", mask.toString());
+            assertFalse(key(numberPad, KeyCode.NUMPAD0).isDisabled());
+            assertFalse(key(numberPad, KeyCode.BACK_SPACE).isDisabled());
+
+            mask.detach();
+            numberPad.getKeys().forEach(key -> assertFalse(key.isDisabled()));
+        });
+    }
+
+    private static String acceptedKeys(final EntryMask mask) {
+        final StringBuilder accepted = new StringBuilder();
+        for (char c : KEYS.toCharArray()) {
+            if (mask.type(c)) {
+                accepted.append(c);
+                mask.backspace();
+            }
+        }
+        return accepted.toString();
+    }
+
+    private static void assertNoDeadEnd(final EntryMask mask, final String spec) {
+        final String accepted = acceptedKeys(mask);
+        if (accepted.isEmpty()) {
+            assertTrue(mask.isComplete(), spec + " dead end at '" + mask + "'");
+            return;
+        }
+        for (char c : accepted.toCharArray()) {
+            mask.type(c);
+            assertNoDeadEnd(mask, spec);
+            mask.backspace();
+        }
+    }
+
+    private static Key key(final NumberPad numberPad, final KeyCode keyCode) {
+        return numberPad.getKeys().stream().filter(key -> keyCode == key.getMetaData()).findFirst().orElseThrow();
+    }
+}
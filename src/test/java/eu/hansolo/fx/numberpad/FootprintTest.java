@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Parent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.text.Text;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Retained size of the object graph (JOL) of one more pad or key next to an existing one,
+ * so state that is shared between instances (fonts, stylesheets, caches) doesn't count.
+ * The instances are not styled, the CSS state of a scene comes on top (see FootprintHarness).
+ */
+class FootprintTest {
+    // measured 110,272 bytes (167,000 with a StackPane per key)
+    private static final long PAD_LIMIT            = 120_000;
+    // measured 101,320 bytes, the keys have no event handlers and observers of their own
+    private static final long DELEGATING_PAD_LIMIT = 110_000;
+    // measured 56,904 bytes
+    private static final long CANVAS_PAD_LIMIT     = 60_000;
+    // measured 7,176 bytes
+    private static final long KEY_LIMIT            = 8_000;
+
+    static {
+        // JOL can't ask for the field offsets of hidden classes (lambdas) on newer JDKs
+        System.setProperty("jol.magicFieldOffset", "true");
+    }
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void numberPadFitsItsBudget() throws Exception {
+        final long bytes = marginalSize(NumberPad::new);
+        assertTrue(bytes < PAD_LIMIT, "NumberPad retains " + bytes + " bytes");
+    }
+
+    @Test void delegatingNumberPadFitsItsBudget() throws Exception {
+        final long bytes = marginalSize(() -> new NumberPad(KeyLayout.NUMBER_PAD, 5, 5, RenderMode.NODES, true));
+        assertTrue(bytes < DELEGATING_PAD_LIMIT, "NumberPad with delegated input retains " + bytes + " bytes");
+    }
+
+    @Test void canvasNumberPadFitsItsBudget() throws Exception {
+        final long bytes = marginalSize(() -> new NumberPad(5, 5, RenderMode.CANVAS));
+        assertTrue(bytes < CANVAS_PAD_LIMIT, "NumberPad on canvas retains " + bytes + " bytes");
+    }
+
+    @Test void keyFitsItsBudget() throws Exception {
+        final long bytes = marginalSize(() -> new Key<>("7"));
+        assertTrue(bytes < KEY_LIMIT, "Key retains " + bytes + " bytes");
+    }
+
+    @Test void keysOfAPadHaveNoPane() throws Exception {
+        FxTest.run(() -> {
+            final Key key = new NumberPad().getKeys().get(0);
+            assertTrue(key.getStyleClass().contains("key"));
+            assertEquals(1, key.getChildrenUnmodifiable().size());
+            assertTrue(key.getChildrenUnmodifiable().get(0) instanceof Text);
+        });
+    }
+
+    @Test void bakedKeyOfAPadGetsAPane() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = new NumberPad();
+            numberPad.setBaked(true);
+            final Key key = numberPad.getKeys().get(0);
+            assertFalse(key.getStyleClass().contains("key"));
+            final StackPane pane = (StackPane) key.getChildrenUnmodifiable().get(0);
+            assertTrue(pane.getStyleClass().contains("key"));
+            assertTrue(pane.getChildren().get(0) instanceof Text);
+        });
+    }
+
+    private static long marginalSize(final Supplier<? extends Parent> factory) throws Exception {
+        return FxTest.call(() -> {
+            final Parent first  = factory.get();
+            final Parent second = factory.get();
+            return GraphLayout.parseInstance(first, second).totalSize() - GraphLayout.parseInstance(first).totalSize();
+        });
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Starts the JavaFX toolkit once per JVM (headless with Monocle, see the test
+ * and jmh tasks) and runs code on the FX thread. Used by the tests and by the
+ * benchmarks and harnesses in src/jmh.
+ */
+final class FxTest {
+    private static volatile boolean started;
+
+
+    // ******************** Constructors **************************************
+    private FxTest() {}
+
+
+    // ******************** Methods *******************************************
+    static synchronized void start() {
+        if (started) { return; }
+        final CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // toolkit already running
+            latch.countDown();
+        }
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) { throw new IllegalStateException("JavaFX toolkit did not start"); }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    static void run(final Runnable runnable) throws Exception {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    static <V> V call(final Callable<V> callable) throws Exception {
+        start();
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future.get(30, TimeUnit.SECONDS);
+    }
+
+    // Lets pending runLater() calls and (started) animation timers run
+    static void waitForPulses(final int pulses) throws Exception {
+        for (int i = 0 ; i < pulses ; i++) {
+            run(() -> {});
+            Thread.sleep(20);
+        }
+    }
+}
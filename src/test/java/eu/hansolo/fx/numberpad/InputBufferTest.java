@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class InputBufferTest {
+
+    @Test void insertAtTheEdgesOfTheGap() {
+        final InputBuffer buffer = buffer("123");
+        assertEquals(3, buffer.getCursor());
+        assertTrue(buffer.moveToStart());
+        assertTrue(buffer.insert('0'));
+        assertEquals("0123", buffer.toString());
+        assertEquals(1, buffer.getCursor());
+        assertTrue(buffer.moveToEnd());
+        assertTrue(buffer.insert('4'));
+        assertEquals("01234", buffer.toString());
+        assertEquals(5, buffer.getCursor());
+    }
+
+    @Test void deleteAtTheEdgesOfTheGap() {
+        final InputBuffer buffer = buffer("123");
+        assertFalse(buffer.delete());
+        assertTrue(buffer.moveToStart());
+        assertFalse(buffer.backspace());
+        assertTrue(buffer.delete());
+        assertEquals("23", buffer.toString());
+        assertTrue(buffer.moveRight());
+        assertTrue(buffer.backspace());
+        assertTrue(buffer.delete());
+        assertTrue(buffer.isEmpty());
+        assertFalse(buffer.delete());
+        assertFalse(buffer.backspace());
+    }
+
+    @Test void moveTheCursorAcrossTheGap() {
+        final InputBuffer buffer = buffer("1234");
+        assertTrue(buffer.moveLeft());
+        assertTrue(buffer.moveLeft());
+        assertTrue(buffer.insert('.'));
+        assertEquals("12.34", buffer.toString());
+        assertEquals(3, buffer.getCursor());
+        // reading doesn't depend on the position of the gap
+        for (int i = 0 ; i < buffer.length() ; i++) { assertEquals("12.34".charAt(i), buffer.charAt(i)); }
+        assertEquals(12.34, buffer.getDouble());
+        assertTrue(buffer.moveRight());
+        assertTrue(buffer.moveRight());
+        assertFalse(buffer.moveRight());
+        assertTrue(buffer.moveToStart());
+        assertFalse(buffer.moveLeft());
+        assertFalse(buffer.moveToStart());
+        assertEquals("12.34", buffer.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(5));
+    }
+
+    // The buffer has a fixed capacity, it doesn't grow
+    @Test void fullBufferRejectsInput() {
+        final InputBuffer buffer = new InputBuffer(4);
+        for (char c : "1234".toCharArray()) { assertTrue(buffer.insert(c)); }
+        assertFalse(buffer.insert('5'));
+        assertTrue(buffer.moveLeft());
+        assertFalse(buffer.insert('5'));
+        assertTrue(buffer.delete());
+        assertTrue(buffer.insert('5'));
+        assertEquals("1235", buffer.toString());
+        assertEquals(4, buffer.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new InputBuffer(0));
+    }
+
+    @Test void onlyOneDecimalPoint() {
+        final InputBuffer buffer = buffer("1.5");
+        assertFalse(buffer.insert('.'));
+        assertFalse(buffer.insert('x'));
+        assertTrue(buffer.moveLeft());
+        assertTrue(buffer.backspace());
+        assertTrue(buffer.insert('.'));
+        assertEquals("1.5", buffer.toString());
+        assertTrue(buffer.moveLeft());
+        assertTrue(buffer.delete());
+        assertTrue(buffer.insert('.'));
+        assertEquals("1.5", buffer.toString());
+    }
+
+    @Test void values() {
+        final InputBuffer buffer = buffer("0042.50");
+        assertEquals(42, buffer.getLong());
+        assertEquals(42.5, buffer.getDouble());
+        assertEquals(new BigDecimal("42.50"), buffer.getBigDecimal());
+        buffer.setNegative(true);
+        assertEquals("-0042.50", buffer.toString());
+        assertEquals('-', buffer.charAt(0));
+        assertEquals(-42, buffer.getLong());
+        assertEquals(-42.5, buffer.getDouble());
+        assertEquals(new BigDecimal("-42.50"), buffer.getBigDecimal());
+
+        assertEquals(0, buffer(".").getDouble());
+        assertEquals(BigDecimal.ZERO, buffer(".").getBigDecimal());
+        assertEquals(0.5, buffer(".5").getDouble());
+        assertEquals(Long.MAX_VALUE, buffer(Long.toString(Long.MAX_VALUE)).getLong());
+        assertEquals(Long.MAX_VALUE / 10, buffer(Long.toString(Long.MAX_VALUE / 10) + "8").getLong());
+        assertEquals(Long.MAX_VALUE, buffer(Long.toString(Long.MAX_VALUE) + "99").getLong());
+    }
+
+    // Up to 15 significant digits are parsed without creating a String, more fall back to Double.parseDouble()
+    @Test void doublesWithMoreThan15Digits() {
+        for (String digits : new String[] { "123456789012345", "1234567890123456", "12345678901234567890", "0.1234567890123456789",
+                                            "000000000000000000001.5", "9007199254740993", "1.00000000000000000001",
+                                            "12345678901234567890123456" }) {
+            assertEquals(Double.parseDouble(digits), buffer(digits).getDouble(), digits);
+            final InputBuffer negative = buffer(digits);
+            negative.setNegative(true);
+            assertEquals(-Double.parseDouble(digits), negative.getDouble(), "-" + digits);
+        }
+    }
+
+    @Test void keyCodes() {
+        final InputBuffer buffer  = new InputBuffer();
+        final int[]       changes = new int[1];
+        buffer.setOnChange(() -> changes[0]++);
+        for (KeyCode keyCode : new KeyCode[] { KeyCode.NUMPAD1, KeyCode.DIGIT2, KeyCode.SEPARATOR, KeyCode.NUMPAD5, KeyCode.MINUS, KeyCode.LEFT, KeyCode.BACK_SPACE }) {
+            assertTrue(buffer.handle(keyCode), keyCode.toString());
+        }
+        assertEquals("-125", buffer.toString());
+        assertFalse(buffer.handle(KeyCode.ENTER));
+        assertFalse(buffer.handle(KeyCode.MINUS));
+        assertEquals(7, changes[0]);
+        assertTrue(buffer.handle(KeyCode.CLEAR));
+        assertFalse(buffer.handle(KeyCode.CLEAR));
+        assertEquals(0, buffer.length());
+    }
+
+    private static InputBuffer buffer(final String digits) {
+        final InputBuffer buffer = new InputBuffer();
+        for (char c : digits.toCharArray()) { assertTrue(buffer.insert(c), digits); }
+        return buffer;
+    }
+}
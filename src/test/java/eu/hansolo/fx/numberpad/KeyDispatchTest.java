@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import com.sun.management.ThreadMXBean;
+import javafx.application.ConditionalFeature;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+
+class KeyDispatchTest {
+    private static final int          ITERATIONS     = 100_000;
+    // a few bytes for the measurement itself, far less than one event per press
+    private static final long         MAX_ALLOCATION = 1_024;
+    private static final ThreadMXBean THREADS        = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private              long         pressed;
+    private              long         released;
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void fireKeyEventDoesNotAllocate() {
+        final Key<String> key = observedKey();
+        dispatch(key, false);
+        final long allocated = allocatedBytes(() -> dispatch(key, false));
+        assertTrue(allocated < MAX_ALLOCATION, "fireKeyEvent() allocated " + allocated + " bytes in " + ITERATIONS + " presses");
+        assertEquals(2L * ITERATIONS, pressed);
+        assertEquals(2L * ITERATIONS, released);
+    }
+
+    @Test void processKeyEventDoesNotAllocate() {
+        final Key<String> key = observedKey();
+        dispatch(key, true);
+        final long allocated = allocatedBytes(() -> dispatch(key, true));
+        assertTrue(allocated < MAX_ALLOCATION, "processKeyEvent() allocated " + allocated + " bytes in " + ITERATIONS + " presses");
+        assertEquals(2L * ITERATIONS, pressed);
+    }
+
+    @Test void observerIsNotifiedOncePerType() {
+        final Key<String>      key      = new Key<>("1");
+        final long[]           count    = new long[1];
+        final KeyEventObserver observer = evt -> count[0]++;
+        key.setOnKeyPressed(observer);
+        key.setOnKeyPressed(observer);
+        key.fireKeyEvent(KeyEventType.PRESSED);
+        key.fireKeyEvent(KeyEventType.RELEASED);
+        assertEquals(1, count[0]);
+        key.removeOnKeyPressed(observer);
+        key.fireKeyEvent(KeyEventType.PRESSED);
+        assertEquals(1, count[0]);
+    }
+
+    @Test void delegatedMouseReleasesOnlyThePressedKey() throws Exception {
+        assumeFalse(Platform.isSupported(ConditionalFeature.INPUT_MULTITOUCH), "delegated pads track touch points");
+        FxTest.run(() -> {
+            final NumberPad        numberPad = new NumberPad(KeyLayout.NUMBER_PAD, 5, 5, RenderMode.NODES, true);
+            final Key              five      = key(numberPad, KeyCode.NUMPAD5);
+            final Key              six       = key(numberPad, KeyCode.NUMPAD6);
+            final StringBuilder    events    = new StringBuilder();
+            final KeyEventObserver observer  = evt -> events.append(evt.getType()).append(' ');
+            numberPad.setOnKeyPressed(observer);
+            numberPad.setOnKeyReleased(observer);
+
+            five.setDisable(true);
+            mouse(five, true);
+            mouse(five, false);
+            assertEquals("", events.toString());
+
+            five.setDisable(false);
+            mouse(five, true);
+            mouse(six, false);
+            assertEquals("PRESSED RELEASED ", events.toString());
+            mouse(six, false);
+            assertEquals("PRESSED RELEASED ", events.toString());
+        });
+    }
+
+    private Key<String> observedKey() {
+        final Key<String>      key              = new Key<>("1");
+        final KeyEventObserver pressedObserver  = evt -> pressed++;
+        final KeyEventObserver releasedObserver = evt -> released++;
+        key.setOnKeyPressed(pressedObserver);
+        key.setOnKeyReleased(releasedObserver);
+        pressed  = 0;
+        released = 0;
+        return key;
+    }
+
+    private static void dispatch(final Key<String> key, final boolean process) {
+        for (int i = 0 ; i < ITERATIONS ; i++) {
+            if (process) {
+                key.processKeyEvent(KeyEventType.PRESSED, 0);
+                key.processKeyEvent(KeyEventType.RELEASED, 0);
+            } else {
+                key.fireKeyEvent(KeyEventType.PRESSED);
+                key.fireKeyEvent(KeyEventType.RELEASED);
+            }
+        }
+    }
+
+    private static long allocatedBytes(final Runnable runnable) {
+        final long threadId = Thread.currentThread().getId();
+        final long before   = THREADS.getThreadAllocatedBytes(threadId);
+        runnable.run();
+        return THREADS.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static Key key(final NumberPad numberPad, final KeyCode keyCode) {
+        return numberPad.getKeys().stream().filter(key -> keyCode == key.getMetaData()).findFirst().orElseThrow();
+    }
+
+    private static void mouse(final Key key, final boolean pressed) {
+        Event.fireEvent(key, new MouseEvent(pressed ? MouseEvent.MOUSE_PRESSED : MouseEvent.MOUSE_RELEASED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
+                                            false, false, false, false, pressed, false, false, false, false, true, null));
+    }
+}
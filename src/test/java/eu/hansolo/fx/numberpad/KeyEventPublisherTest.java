@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyEventPublisherTest {
+    // runs the drain task on the calling thread, so everything happens on the FX thread
+    private static final Executor DIRECT   = Runnable::run;
+    private static final int      CAPACITY = 4;
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void blockFailsASubscriberWithoutDemandInsteadOfWaiting() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.BLOCK);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+            publisher.subscribe(subscriber);
+            press(numberPad, 2 * CAPACITY);
+            assertTrue(subscriber.error instanceof IllegalStateException);
+            assertTrue(subscriber.items.isEmpty());
+            assertEquals(0, publisher.getSubscriberCount());
+        });
+    }
+
+    @Test void blockDeliversWhatWasRequested() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.BLOCK);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            press(numberPad, 10 * CAPACITY);
+            assertNull(subscriber.error);
+            assertEquals(20 * CAPACITY, subscriber.items.size());
+            assertEquals(0, publisher.getDroppedEvents());
+        });
+    }
+
+    @Test void dropOldestKeepsTheNewestEvents() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.DROP_OLDEST);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+            publisher.subscribe(subscriber);
+            press(numberPad, 3);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertEquals(CAPACITY, subscriber.items.size());
+            assertEquals(6 - CAPACITY, publisher.getDroppedEvents());
+            assertEquals(numberPad.getKeys().get(2), subscriber.items.get(CAPACITY - 1).getKey());
+            assertEquals(KeyEventType.RELEASED, subscriber.items.get(CAPACITY - 1).getType());
+        });
+    }
+
+    @Test void coalesceKeepsAReleaseFollowedByAnotherKeysPress() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.COALESCE);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+            publisher.subscribe(subscriber);
+            press(numberPad, 2);
+            final Key released = numberPad.getKeys().get(1);
+            final Key pressed  = numberPad.getKeys().get(2);
+            pressed.fireKeyEvent(KeyEventType.PRESSED);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertEquals(CAPACITY, subscriber.items.size());
+            assertEquals(1, publisher.getDroppedEvents());
+            assertEquals(released, subscriber.items.get(CAPACITY - 2).getKey());
+            assertEquals(KeyEventType.RELEASED, subscriber.items.get(CAPACITY - 2).getType());
+            assertEquals(pressed, subscriber.items.get(CAPACITY - 1).getKey());
+            assertEquals(KeyEventType.PRESSED, subscriber.items.get(CAPACITY - 1).getType());
+        });
+    }
+
+    @Test void coalesceDropsARepeatOfTheNewestEvent() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.COALESCE);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+            publisher.subscribe(subscriber);
+            press(numberPad, 2);
+            numberPad.getKeys().get(1).fireKeyEvent(KeyEventType.RELEASED);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertEquals(CAPACITY, subscriber.items.size());
+            assertEquals(1, publisher.getDroppedEvents());
+            assertEquals(numberPad.getKeys().get(0), subscriber.items.get(0).getKey());
+            assertEquals(KeyEventType.PRESSED, subscriber.items.get(0).getType());
+        });
+    }
+
+    @Test void closeCompletesTheSubscribers() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad           numberPad  = new NumberPad();
+            final KeyEventPublisher   publisher  = numberPad.createPublisher(DIRECT, CAPACITY, OverflowPolicy.DROP_OLDEST);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            press(numberPad, 1);
+            publisher.close();
+            assertEquals(2, subscriber.items.size());
+            assertTrue(subscriber.completed);
+        });
+    }
+
+    // Presses and releases the first count keys
+    private static void press(final NumberPad numberPad, final int count) {
+        for (int i = 0 ; i < count ; i++) {
+            final Key key = numberPad.getKeys().get(i % numberPad.getKeys().size());
+            key.fireKeyEvent(KeyEventType.PRESSED);
+            key.fireKeyEvent(KeyEventType.RELEASED);
+        }
+    }
+
+
+    private static class RecordingSubscriber implements Flow.Subscriber<KeyEvent> {
+        private final List<KeyEvent>    items = new ArrayList<>();
+        private final long              initialDemand;
+        private       Flow.Subscription subscription;
+        private       Throwable         error;
+        private       boolean           completed;
+
+
+        RecordingSubscriber(final long initialDemand) { this.initialDemand = initialDemand; }
+
+
+        @Override public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) { subscription.request(initialDemand); }
+        }
+        @Override public void onNext(final KeyEvent item) { items.add(item); }
+        @Override public void onError(final Throwable throwable) { error = throwable; }
+        @Override public void onComplete() { completed = true; }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyEventRecorderTest {
+    private static final KeyCode[] TYPED = { KeyCode.NUMPAD1, KeyCode.NUMPAD2, KeyCode.ENTER };
+
+    @TempDir Path dir;
+
+
+    @Test void recordAndReplay() throws Exception {
+        final Path recording = record(dir.resolve("events.npr"));
+        try (KeyEventPlayer player = new KeyEventPlayer(recording)) {
+            assertEquals(2 * TYPED.length, player.getEventCount());
+            for (int i = 0 ; i < TYPED.length ; i++) {
+                assertEquals(TYPED[i].getCode(), player.getKeyCode(2 * i));
+                assertEquals(KeyEventType.PRESSED, player.getType(2 * i));
+                assertEquals(KeyEventType.RELEASED, player.getType(2 * i + 1));
+                assertTrue(player.getTimestamp(2 * i + 1) >= player.getTimestamp(2 * i));
+            }
+            final List<String> replayed = FxTest.call(() -> {
+                final NumberPad    numberPad = new NumberPad();
+                final List<String> events    = observe(numberPad);
+                assertEquals(2 * TYPED.length, player.replayAll(numberPad));
+                return events;
+            });
+            assertEquals(expectedEvents(), replayed);
+        }
+    }
+
+    @Test void playWithTheOriginalTiming() throws Exception {
+        final Path recording = record(dir.resolve("events.npr"));
+        try (KeyEventPlayer player = new KeyEventPlayer(recording)) {
+            final CompletableFuture<List<String>> finished = new CompletableFuture<>();
+            FxTest.run(() -> {
+                final NumberPad    numberPad = new NumberPad();
+                final List<String> events    = observe(numberPad);
+                player.play(numberPad, () -> finished.complete(events));
+            });
+            assertEquals(expectedEvents(), finished.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test void corruptTypeIsRejected() throws Exception {
+        final Path recording = record(dir.resolve("events.npr"));
+        try (RandomAccessFile file = new RandomAccessFile(recording.toFile(), "rw")) {
+            file.seek(KeyEventRecorder.HEADER_SIZE + KeyEventRecorder.RECORD_SIZE + 10);
+            file.write(KeyEventType.values().length);
+        }
+        final IOException e = assertThrows(IOException.class, () -> new KeyEventPlayer(recording));
+        assertTrue(e.getMessage().contains("invalid event type"), e.getMessage());
+    }
+
+    @Test void truncatedRecordingsAreReadUpToTheLastCompleteRecord() throws Exception {
+        final Path recording = record(dir.resolve("events.npr"));
+        try (RandomAccessFile file = new RandomAccessFile(recording.toFile(), "rw")) {
+            file.setLength(KeyEventRecorder.HEADER_SIZE + 3 * KeyEventRecorder.RECORD_SIZE + 5);
+        }
+        try (KeyEventPlayer player = new KeyEventPlayer(recording)) {
+            assertEquals(3, player.getEventCount());
+        }
+        try (RandomAccessFile file = new RandomAccessFile(recording.toFile(), "rw")) {
+            file.setLength(KeyEventRecorder.HEADER_SIZE - 1);
+        }
+        assertThrows(IOException.class, () -> new KeyEventPlayer(recording));
+        Files.write(recording, new byte[0]);
+        assertThrows(IOException.class, () -> new KeyEventPlayer(recording));
+    }
+
+    private static Path record(final Path path) throws Exception {
+        try (KeyEventRecorder recorder = new KeyEventRecorder(path, 16)) {
+            FxTest.run(() -> {
+                final NumberPad numberPad = new NumberPad();
+                recorder.start(numberPad);
+                for (KeyCode keyCode : TYPED) {
+                    final Key key = numberPad.getKeys().stream().filter(k -> keyCode == k.getMetaData()).findFirst().orElseThrow();
+                    numberPad.pressKey(key, true);
+                    numberPad.pressKey(key, false);
+                }
+                recorder.stop();
+            });
+            assertEquals(2 * TYPED.length, recorder.getRecordedEvents());
+        }
+        return path;
+    }
+
+    private static List<String> observe(final NumberPad numberPad) {
+        final List<String>     events   = new ArrayList<>();
+        final KeyEventObserver observer = evt -> events.add(evt.getKey().getMetaData() + " " + evt.getType());
+        numberPad.setOnKeyPressed(observer);
+        numberPad.setOnKeyReleased(observer);
+        return events;
+    }
+
+    private static List<String> expectedEvents() {
+        final List<String> events = new ArrayList<>();
+        for (KeyCode keyCode : TYPED) {
+            events.add(keyCode + " " + KeyEventType.PRESSED);
+            events.add(keyCode + " " + KeyEventType.RELEASED);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyImageCacheTest {
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void bakingIsDeferredUntilAfterTheLayoutPass() throws Exception {
+        final Key<String> key = FxTest.call(() -> {
+            final Key<String> bakedKey = new Key<>("7");
+            bakedKey.setBaked(true);
+            final StackPane root = new StackPane(bakedKey);
+            new Scene(root);
+            root.resize(64, 64);
+            root.layout();
+            assertNull(bakedView(bakedKey).getImage());
+            assertTrue(pane(bakedKey).isVisible());
+            return bakedKey;
+        });
+        FxTest.waitForPulses(3);
+        FxTest.run(() -> {
+            assertNotNull(bakedView(key).getImage());
+            assertFalse(pane(key).isVisible());
+        });
+    }
+
+    @Test void keysWithTheSameLookShareTheirImages() throws Exception {
+        final StackPane root = FxTest.call(() -> {
+            final Key<String> first  = new Key<>("8");
+            final Key<String> second = new Key<>("8");
+            first.setBaked(true);
+            second.setBaked(true);
+            final StackPane stackPane = new StackPane(first, second);
+            new Scene(stackPane);
+            stackPane.resize(72, 72);
+            stackPane.layout();
+            return stackPane;
+        });
+        FxTest.waitForPulses(3);
+        FxTest.run(() -> assertSame(bakedView((Key<?>) root.getChildren().get(0)).getImage(), bakedView((Key<?>) root.getChildren().get(1)).getImage()));
+    }
+
+    @Test void cacheKeysCompareTheirParts() {
+        final KeyImageCache.CacheKey key = new KeyImageCache.CacheKey("7", 64, 48, 20, new String[] { "key", "", "|", "a.css" });
+        assertEquals(key, new KeyImageCache.CacheKey("7", 64, 48, 20, new String[] { "key", "", "|", "a.css" }));
+        assertEquals(key.hashCode(), new KeyImageCache.CacheKey("7", 64, 48, 20, new String[] { "key", "", "|", "a.css" }).hashCode());
+        assertNotEquals(key, new KeyImageCache.CacheKey("8", 64, 48, 20, new String[] { "key", "", "|", "a.css" }));
+        assertNotEquals(key, new KeyImageCache.CacheKey("7", 64, 49, 20, new String[] { "key", "", "|", "a.css" }));
+        assertNotEquals(key, new KeyImageCache.CacheKey("7", 64, 48, 20, new String[] { "key", "", "|", "b.css" }));
+    }
+
+    private static ImageView bakedView(final Key<?> key) {
+        for (Node node : key.getChildrenUnmodifiable()) { if (node instanceof ImageView) { return (ImageView) node; } }
+        throw new AssertionError("Key is not baked");
+    }
+
+    private static Node pane(final Key<?> key) { return key.getChildrenUnmodifiable().get(0); }
+}
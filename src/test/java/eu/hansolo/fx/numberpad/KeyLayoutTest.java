@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyLayoutTest {
+
+    @Test void numberPadLayout() {
+        final KeyLayout layout = KeyLayout.NUMBER_PAD;
+        assertEquals(5, layout.getColumns());
+        assertEquals(5, layout.getRows());
+        assertEquals(22, layout.getKeyCount());
+        assertEquals("\u25c0", layout.getLabel(0));
+        assertEquals(KeyCode.LEFT, layout.getKeyCode(0));
+
+        // CANCEL spans two columns, ENTER two rows, 0 two columns
+        final int cancel = layout.getKeyIndexAt(3, 0);
+        assertEquals(KeyCode.CANCEL, layout.getKeyCode(cancel));
+        assertEquals(cancel, layout.getKeyIndexAt(4, 0));
+        assertEquals(2, layout.getColumnSpan(cancel));
+        final int enter = layout.getKeyIndexAt(4, 3);
+        assertEquals(KeyCode.ENTER, layout.getKeyCode(enter));
+        assertEquals(enter, layout.getKeyIndexAt(4, 4));
+        assertEquals(2, layout.getRowSpan(enter));
+        final int zero = layout.getKeyIndexAt(0, 4);
+        assertEquals(KeyCode.NUMPAD0, layout.getKeyCode(zero));
+        assertEquals(zero, layout.getKeyIndexAt(1, 4));
+        assertEquals(KeyCode.SEPARATOR, layout.getKeyCode(layout.getKeyIndexAt(2, 4)));
+        assertEquals(KeyCode.MINUS, layout.getKeyCode(layout.getKeyIndexAt(3, 4)));
+    }
+
+    @Test void rowSpanCellsAreSkipped() {
+        final KeyLayout layout = KeyLayout.parse("a:A b:B:1x2 c:C\n" +
+                                                 "d:D e:E");
+        assertEquals(3, layout.getColumns());
+        assertEquals(2, layout.getRows());
+        assertEquals(0, layout.getColumn(3));
+        assertEquals(1, layout.getRow(3));
+        // e is placed behind the row span of b
+        assertEquals(2, layout.getColumn(4));
+        assertEquals(1, layout.getKeyIndexAt(1, 1));
+    }
+
+    @Test void emptyCellsCommentsAndEscapes() {
+        final KeyLayout layout = KeyLayout.parse("# comment\n" +
+                                                 "\n" +
+                                                 "_ \\u25b2:UP _\n" +
+                                                 "x:X:wide y:Y:2x1:big");
+        assertEquals(3, layout.getKeyCount());
+        assertEquals(-1, layout.getKeyIndexAt(0, 0));
+        assertEquals("\u25b2", layout.getLabel(0));
+        assertEquals(-1, layout.getKeyIndexAt(2, 0));
+        assertEquals("wide", layout.getStyleClass(1));
+        assertEquals(2, layout.getColumnSpan(2));
+        assertEquals("big", layout.getStyleClass(2));
+        assertNull(layout.getStyleClass(0));
+        assertEquals(-1, layout.getKeyIndexAt(3, 0));
+        assertEquals(-1, layout.getKeyIndexAt(0, -1));
+    }
+
+    // Cells of 10 x 10 with gaps of 2, the gaps inside of a span belong to the key
+    @Test void hitTest() {
+        final KeyLayout layout = KeyLayout.parse("a:A b:B:1x2 c:C\n" +
+                                                 "d:D\n" +
+                                                 "e:E:2x1");
+        assertEquals(0, layout.keyIndexAt(5, 5, 10, 10, 2, 2));
+        assertEquals(-1, layout.keyIndexAt(11, 5, 10, 10, 2, 2));
+        assertEquals(1, layout.keyIndexAt(15, 11, 10, 10, 2, 2));
+        assertEquals(-1, layout.keyIndexAt(5, 11, 10, 10, 2, 2));
+        assertEquals(4, layout.keyIndexAt(11, 29, 10, 10, 2, 2));
+        assertEquals(-1, layout.keyIndexAt(29, 29, 10, 10, 2, 2));
+        assertEquals(-1, layout.keyIndexAt(-1, 5, 10, 10, 2, 2));
+        assertEquals(-1, layout.keyIndexAt(5, 5, 0, 0, 2, 2));
+    }
+
+    @Test void parsedLayoutsAreCached() {
+        // NUMBER_PAD itself may have been evicted by the other tests
+        assertSame(KeyLayout.parse(KeyLayout.NUMBER_PAD_SPEC), KeyLayout.parse(KeyLayout.NUMBER_PAD_SPEC));
+    }
+
+    @Test void theCacheIsBounded() {
+        final KeyLayout layout = KeyLayout.parse("cached:A");
+        for (int i = 0 ; i < 100 ; i++) { KeyLayout.parse("k" + i + ":A"); }
+        assertNotSame(layout, KeyLayout.parse("cached:A"));
+    }
+
+    @Test void sameCells() {
+        assertTrue(KeyLayout.NUMBER_PAD.hasSameCells(KeyLayout.parse(KeyLayout.NUMBER_PAD_SPEC.replace("CLR:CLEAR", "A:A"))));
+        assertFalse(KeyLayout.NUMBER_PAD.hasSameCells(KeyLayout.parse(KeyLayout.NUMBER_PAD_SPEC.replace("CANCEL:CANCEL:2x1", "CANCEL:CANCEL"))));
+    }
+
+    @Test void invalidSpecsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeyLayout.parse(null));
+        assertRejected("a", "Invalid key 'a'");
+        assertRejected(":A", "Invalid key ':A'");
+        assertRejected("a:A:1x1:b:c", "Invalid key");
+        assertRejected("a:NO_SUCH_KEY", "Unknown KeyCode 'NO_SUCH_KEY'");
+        assertRejected("a:A:0x1", "Invalid span '0x1'");
+        assertRejected("a:A:1x0", "Invalid span '1x0'");
+        assertRejected("a:A:99999999999", "Invalid span");
+        assertRejected("a:A:9bad", "Invalid style class '9bad'");
+        assertRejected("a:A:2x1:b.c", "Invalid style class 'b.c'");
+        assertRejected("\\uzz25:A", "Invalid unicode escape '\\uzz25' in label '\\uzz25'");
+    }
+
+    @Test void overlappingSpansAreRejected() {
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeyLayout.parse("a:A b:B:1x2\nc:C:2x1"));
+        assertEquals("Key 'c' overlaps key 'b' at column 1, row 1", e.getMessage());
+    }
+
+    private static void assertRejected(final String spec, final String message) {
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeyLayout.parse(spec), spec);
+        assertTrue(e.getMessage().startsWith(message), e.getMessage());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyRepeaterTest {
+    private static final int PULSES = 5;
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void holdingAKeyRepeatsUntilItIsReleased() throws Exception {
+        final AtomicInteger repeats = new AtomicInteger();
+        final Key<String>   key     = repeatingKey(repeats);
+        FxTest.waitForPulses(PULSES);
+        assertEquals(0, repeats.get(), "a key that isn't held doesn't repeat");
+
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.PRESSED, 0));
+        FxTest.waitForPulses(PULSES);
+        assertTrue(repeats.get() > 0, "a held key repeats");
+
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.RELEASED, 0));
+        assertNoMoreRepeats(repeats);
+    }
+
+    @Test void repeatsStartAfterTheDelay() throws Exception {
+        final AtomicInteger repeats = new AtomicInteger();
+        final Key<String>   key     = repeatingKey(repeats);
+        key.setRepeatDelay(60_000);
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.PRESSED, 0));
+        FxTest.waitForPulses(PULSES);
+        assertEquals(0, repeats.get());
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.RELEASED, 0));
+    }
+
+    @Test void disablingAHeldKeyStopsTheRepeats() throws Exception {
+        final AtomicInteger repeats = new AtomicInteger();
+        final Key<String>   key     = repeatingKey(repeats);
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.PRESSED, 0));
+        FxTest.waitForPulses(PULSES);
+        FxTest.run(() -> key.setDisable(true));
+        assertNoMoreRepeats(repeats);
+    }
+
+    @Test void newMetaDataStopsTheRepeats() throws Exception {
+        final AtomicInteger repeats = new AtomicInteger();
+        final Key<String>   key     = repeatingKey(repeats);
+        FxTest.run(() -> key.processKeyEvent(KeyEventType.PRESSED, 0));
+        FxTest.waitForPulses(PULSES);
+        FxTest.run(() -> key.setMetaData("2"));
+        assertNoMoreRepeats(repeats);
+    }
+
+    @Test void releasingKeysWhileRepeatingKeepsTheOthers() throws Exception {
+        final AtomicInteger repeats = new AtomicInteger();
+        final Key<String>   other   = repeatingKey(repeats);
+        final Key<String>   key     = new Key<>("1", "1");
+        key.setAutoRepeat(true);
+        key.setRepeatDelay(0);
+        key.setRepeatRate(1);
+        key.setOnKeyRepeated(evt -> key.processKeyEvent(KeyEventType.RELEASED, 0));
+        FxTest.run(() -> {
+            // the key that releases itself is held first, the other key moves into its slot
+            key.processKeyEvent(KeyEventType.PRESSED, 0);
+            other.processKeyEvent(KeyEventType.PRESSED, 0);
+        });
+        FxTest.waitForPulses(PULSES);
+        assertTrue(repeats.get() > 0);
+        FxTest.run(() -> other.processKeyEvent(KeyEventType.RELEASED, 0));
+        assertNoMoreRepeats(repeats);
+    }
+
+    private static Key<String> repeatingKey(final AtomicInteger repeats) {
+        final Key<String> key = new Key<>("1", "1");
+        key.setAutoRepeat(true);
+        key.setRepeatDelay(0);
+        key.setRepeatRate(1);
+        key.setOnKeyRepeated(evt -> repeats.incrementAndGet());
+        return key;
+    }
+
+    private static void assertNoMoreRepeats(final AtomicInteger repeats) throws Exception {
+        FxTest.waitForPulses(1);
+        final int count = repeats.get();
+        FxTest.waitForPulses(PULSES);
+        assertEquals(count, repeats.get(), "the key stopped repeating");
+    }
+}
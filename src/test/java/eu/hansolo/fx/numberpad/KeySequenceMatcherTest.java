@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class KeySequenceMatcherTest {
+    private final List<String> matches = new ArrayList<>();
+
+
+    @Test void overlappingSequencesAllMatch() {
+        final KeySequenceMatcher matcher = matcher("**7#", "7#", "*7", "#");
+        press(matcher, "**7#");
+        assertEquals(List.of("*7", "**7#", "7#", "#"), matches);
+    }
+
+    @Test void prefixesAndSuffixesMatch() {
+        final KeySequenceMatcher matcher = matcher("1234", "12", "123", "234", "4");
+        press(matcher, "01234");
+        assertEquals(List.of("12", "123", "1234", "234", "4"), sorted(matches));
+    }
+
+    @Test void selfOverlappingSequenceMatchesEveryTime() {
+        final KeySequenceMatcher matcher = matcher("11", "111");
+        press(matcher, "1111");
+        assertEquals(List.of("11", "111", "11", "111", "11"), matches);
+    }
+
+    // the classic he, she, his, hers in ushers example with h=1, e=2, s=3, i=4, r=5, u=6
+    @Test void failureLinksFollowTheLongestSuffix() {
+        final KeySequenceMatcher matcher = matcher("12", "312", "143", "1253");
+        press(matcher, "631253");
+        assertEquals(List.of("312", "12", "1253"), matches);
+        // the automaton keeps its state, the 3 at the end and the next 12 are "312" again
+        matches.clear();
+        press(matcher, "12");
+        assertEquals(List.of("312", "12"), matches);
+        matches.clear();
+        matcher.reset();
+        press(matcher, "12531433");
+        assertEquals(List.of("12", "1253", "143"), matches);
+    }
+
+    @Test void matchesLikeBruteForce() {
+        final Random random = new Random(42);
+        for (int run = 0 ; run < 50 ; run++) {
+            final List<String> sequences = new ArrayList<>();
+            for (int i = 0 ; i < 1 + random.nextInt(20) ; i++) { sequences.add(randomKeys(random, 1 + random.nextInt(5), 3)); }
+            final KeySequenceMatcher matcher = matcher(sequences.toArray(new String[0]));
+            final String             keys    = randomKeys(random, 200, 3);
+            press(matcher, keys);
+
+            final List<String> expected = new ArrayList<>();
+            for (int end = 1 ; end <= keys.length() ; end++) {
+                for (String sequence : sequences) {
+                    if (keys.substring(0, end).endsWith(sequence)) { expected.add(sequence); }
+                }
+            }
+            assertEquals(sorted(expected), sorted(matches), String.join(" ", sequences) + " in " + keys);
+            matches.clear();
+        }
+    }
+
+    @Test void otherKeysResetTheSequence() {
+        final KeySequenceMatcher matcher = matcher("12");
+        matcher.press(KeyCode.NUMPAD1);
+        matcher.press(KeyCode.LEFT);
+        matcher.press(KeyCode.NUMPAD2);
+        assertEquals(List.of(), matches);
+        matcher.press(KeyCode.NUMPAD1);
+        matcher.reset();
+        matcher.press(KeyCode.NUMPAD2);
+        assertEquals(List.of(), matches);
+    }
+
+    @Test void aliasesMatchTheNumberPadKeys() {
+        final KeySequenceMatcher matcher = new KeySequenceMatcher();
+        matcher.register(() -> matches.add("12"), KeyCode.DIGIT1, KeyCode.NUMPAD2);
+        matcher.press(KeyCode.NUMPAD1);
+        matcher.press(KeyCode.DIGIT2);
+        assertEquals(List.of("12"), matches);
+    }
+
+    @Test void removeAndClear() {
+        final KeySequenceMatcher matcher = matcher("12", "12", "2");
+        press(matcher, "12");
+        assertEquals(List.of("12", "12", "2"), sorted(matches));
+        matches.clear();
+        matcher.remove("12");
+        assertEquals(1, matcher.getSequenceCount());
+        press(matcher, "12");
+        assertEquals(List.of("2"), matches);
+        matcher.clear();
+        press(matcher, "12");
+        assertEquals(List.of("2"), matches);
+    }
+
+    @Test void callbacksMayChangeTheRegistrations() {
+        final KeySequenceMatcher matcher = new KeySequenceMatcher();
+        matcher.register(() -> {
+            matches.add("1");
+            matcher.register(() -> matches.add("2"), "2");
+        }, "1");
+        press(matcher, "12");
+        assertEquals(List.of("1", "2"), matches);
+    }
+
+    @Test void invalidSequences() {
+        final KeySequenceMatcher matcher = new KeySequenceMatcher();
+        assertThrows(IllegalArgumentException.class, () -> matcher.register(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> matcher.register(() -> {}, ""));
+        assertThrows(IllegalArgumentException.class, () -> matcher.register(() -> {}, (String) null));
+        assertThrows(IllegalArgumentException.class, () -> matcher.register(() -> {}, "1x"));
+        assertThrows(IllegalArgumentException.class, () -> matcher.register(() -> {}, KeyCode.NUMPAD1, null));
+    }
+
+    @Test void attachedToNumberPad() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad          numberPad = new NumberPad();
+            final KeySequenceMatcher matcher   = matcher("42");
+            matcher.attach(numberPad);
+            numberPad.injectKeys("142");
+        });
+        FxTest.waitForPulses(5);
+        assertEquals(List.of("42"), matches);
+    }
+
+    private KeySequenceMatcher matcher(final String... sequences) {
+        final KeySequenceMatcher matcher = new KeySequenceMatcher();
+        for (String sequence : sequences) { matcher.register(() -> matches.add(sequence), sequence); }
+        return matcher;
+    }
+
+    private static void press(final KeySequenceMatcher matcher, final String keys) {
+        for (int i = 0 ; i < keys.length() ; i++) { matcher.press(NumberPad.toKeyCode(keys.charAt(i))); }
+    }
+
+    private static String randomKeys(final Random random, final int length, final int alphabet) {
+        final StringBuilder keys = new StringBuilder(length);
+        for (int i = 0 ; i < length ; i++) { keys.append((char) ('1' + random.nextInt(alphabet))); }
+        return keys.toString();
+    }
+
+    private static List<String> sorted(final List<String> list) {
+        final List<String> sorted = new ArrayList<>(list);
+        sorted.sort(null);
+        return sorted;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeySubscriptionTest {
+
+    @Test void onlyTheSubscribedKeysAreObserved() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad       numberPad    = new NumberPad();
+            final List<KeyCode>   received     = new ArrayList<>();
+            final KeySubscription subscription = numberPad.subscribe(KeyEventType.PRESSED, evt -> received.add((KeyCode) evt.getKey().getMetaData()),
+                                                                     KeyCode.ENTER, KeyCode.NUMPAD1);
+            type(numberPad, KeyCode.NUMPAD1, KeyCode.NUMPAD2, KeyCode.ENTER);
+            assertEquals(List.of(KeyCode.NUMPAD1, KeyCode.ENTER), received);
+            assertEquals(Set.of(KeyCode.ENTER, KeyCode.NUMPAD1), subscription.getKeyCodes());
+        });
+    }
+
+    @Test void noKeyCodesObserveAllKeys() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad     numberPad = new NumberPad();
+            final List<KeyCode> received  = new ArrayList<>();
+            numberPad.subscribe(KeyEventType.PRESSED, evt -> received.add((KeyCode) evt.getKey().getMetaData()));
+            type(numberPad, KeyCode.NUMPAD1, KeyCode.NUMPAD2);
+            assertEquals(List.of(KeyCode.NUMPAD1, KeyCode.NUMPAD2), received);
+        });
+    }
+
+    @Test void onlyTheSubscribedTypeIsObserved() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad          numberPad = new NumberPad();
+            final List<KeyEventType> received  = new ArrayList<>();
+            numberPad.subscribe(KeyEventType.RELEASED, evt -> received.add(evt.getType()), KeyCode.NUMPAD5);
+            type(numberPad, KeyCode.NUMPAD5);
+            assertEquals(List.of(KeyEventType.RELEASED), received);
+        });
+    }
+
+    @Test void theSameObserverCanBeSubscribedTwice() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad        numberPad = new NumberPad();
+            final List<KeyCode>    received  = new ArrayList<>();
+            final KeyEventObserver observer  = evt -> received.add((KeyCode) evt.getKey().getMetaData());
+            final KeySubscription  first     = numberPad.subscribe(KeyEventType.PRESSED, observer, KeyCode.NUMPAD1);
+            numberPad.subscribe(KeyEventType.PRESSED, observer, KeyCode.NUMPAD1, KeyCode.NUMPAD2);
+            type(numberPad, KeyCode.NUMPAD1);
+            assertEquals(2, received.size());
+
+            first.unsubscribe();
+            assertFalse(first.isSubscribed());
+            received.clear();
+            type(numberPad, KeyCode.NUMPAD1, KeyCode.NUMPAD2);
+            assertEquals(List.of(KeyCode.NUMPAD1, KeyCode.NUMPAD2), received);
+        });
+    }
+
+    // The event that is being dispatched still reaches all observers, the next one only the remaining ones
+    @Test void unsubscribingDuringDispatch() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad         numberPad     = new NumberPad();
+            final List<String>      received      = new ArrayList<>();
+            final KeySubscription[] subscriptions = new KeySubscription[2];
+            subscriptions[0] = numberPad.subscribe(KeyEventType.PRESSED, evt -> {
+                received.add("first");
+                subscriptions[0].unsubscribe();
+                subscriptions[1].unsubscribe();
+            }, KeyCode.NUMPAD1);
+            subscriptions[1] = numberPad.subscribe(KeyEventType.PRESSED, evt -> received.add("second"), KeyCode.NUMPAD1);
+            final KeySubscription other = numberPad.subscribe(KeyEventType.PRESSED, evt -> received.add("other"), KeyCode.NUMPAD1);
+
+            type(numberPad, KeyCode.NUMPAD1);
+            assertEquals(List.of("first", "second", "other"), received);
+            received.clear();
+            type(numberPad, KeyCode.NUMPAD1);
+            assertEquals(List.of("other"), received);
+
+            subscriptions[0].unsubscribe();
+            assertTrue(other.isSubscribed());
+            other.unsubscribe();
+            received.clear();
+            type(numberPad, KeyCode.NUMPAD1);
+            assertTrue(received.isEmpty());
+        });
+    }
+
+    @Test void invalidArguments() {
+        final NumberPad numberPad = new NumberPad();
+        assertThrows(IllegalArgumentException.class, () -> numberPad.subscribe(null, evt -> {}));
+        assertThrows(IllegalArgumentException.class, () -> numberPad.subscribe(KeyEventType.PRESSED, null));
+        assertThrows(IllegalArgumentException.class, () -> numberPad.subscribe(KeyEventType.PRESSED, evt -> {}, (Set<KeyCode>) null));
+    }
+
+    private static void type(final NumberPad numberPad, final KeyCode... keyCodes) {
+        for (KeyCode keyCode : keyCodes) {
+            final Key key = numberPad.getKeys().stream().filter(k -> keyCode == k.getMetaData()).findFirst().orElseThrow();
+            numberPad.pressKey(key, true);
+            numberPad.pressKey(key, false);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyboardBridgeTest {
+    private final List<KeyEvent> received = new ArrayList<>();
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void pressAndReleaseAnAlias() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = observedPad();
+            final Scene     scene     = attach(numberPad);
+            type(scene, KeyCode.DIGIT1, true);
+            type(scene, KeyCode.DIGIT1, true);
+            type(scene, KeyCode.DIGIT1, false);
+            assertEquals(2, received.size());
+            assertEquals(KeyCode.NUMPAD1, received.get(0).getKey().getMetaData());
+            assertEquals(KeyEventType.PRESSED, received.get(0).getType());
+            assertEquals(KeyEventType.RELEASED, received.get(1).getType());
+        });
+    }
+
+    @Test void swallowedPressIsNotReleased() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = observedPad();
+            final Scene     scene     = attach(numberPad);
+            final Key       key       = new KeyboardBridge(numberPad).getKey(KeyCode.NUMPAD5);
+            numberPad.setKeyEnabled(key, false);
+            type(scene, KeyCode.NUMPAD5, true);
+            numberPad.setKeyEnabled(key, true);
+            type(scene, KeyCode.NUMPAD5, false);
+            assertTrue(received.isEmpty());
+        });
+    }
+
+    @Test void releaseGoesToThePressedKey() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad      numberPad = observedPad();
+            final KeyboardBridge bridge    = new KeyboardBridge(numberPad);
+            final Scene          scene     = new Scene(new StackPane(numberPad));
+            bridge.attach(scene);
+            @SuppressWarnings("unchecked")
+            final Key<KeyCode> pressed = (Key<KeyCode>) bridge.getKey(KeyCode.NUMPAD7);
+            type(scene, KeyCode.NUMPAD7, true);
+            pressed.setMetaData(KeyCode.F7);
+            bridge.reindex();
+            type(scene, KeyCode.NUMPAD7, false);
+            assertEquals(2, received.size());
+            assertEquals(pressed, received.get(1).getKey());
+            assertEquals(KeyEventType.RELEASED, received.get(1).getType());
+        });
+    }
+
+    @Test void detachReleasesTheHeldKeys() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad      numberPad = observedPad();
+            final KeyboardBridge bridge    = new KeyboardBridge(numberPad);
+            final Scene          scene     = new Scene(new StackPane(numberPad));
+            bridge.attach(scene);
+            @SuppressWarnings("unchecked")
+            final Key<KeyCode> pressed = (Key<KeyCode>) bridge.getKey(KeyCode.NUMPAD3);
+            type(scene, KeyCode.NUMPAD3, true);
+            // the held key is not in the index anymore
+            pressed.setMetaData(KeyCode.F3);
+            bridge.reindex();
+            bridge.detach();
+            assertEquals(2, received.size());
+            assertEquals(pressed, received.get(1).getKey());
+            assertEquals(KeyEventType.RELEASED, received.get(1).getType());
+            type(scene, KeyCode.NUMPAD3, false);
+            assertEquals(2, received.size());
+        });
+    }
+
+    private NumberPad observedPad() {
+        final NumberPad        numberPad = new NumberPad();
+        final KeyEventObserver observer  = received::add;
+        numberPad.setOnKeyPressed(observer);
+        numberPad.setOnKeyReleased(observer);
+        return numberPad;
+    }
+
+    private static Scene attach(final NumberPad numberPad) {
+        final Scene scene = new Scene(new StackPane(numberPad));
+        new KeyboardBridge(numberPad).attach(scene);
+        return scene;
+    }
+
+    private static void type(final Scene scene, final KeyCode keyCode, final boolean pressed) {
+        final javafx.scene.input.KeyEvent evt = new javafx.scene.input.KeyEvent(pressed ? javafx.scene.input.KeyEvent.KEY_PRESSED : javafx.scene.input.KeyEvent.KEY_RELEASED,
+                                                                                "", "", keyCode, false, false, false, false);
+        javafx.event.Event.fireEvent(scene, evt);
+    }
+}
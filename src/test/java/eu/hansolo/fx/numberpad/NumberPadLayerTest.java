@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class NumberPadLayerTest {
+    // the 7 of the number pad becomes F7, everything else stays
+    private static final KeyLayout LAYER = KeyLayout.parse(KeyLayout.NUMBER_PAD_SPEC.replace("7:NUMPAD7", "F7:F7"));
+    private static final int       SEVEN = 4;
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void keysAreRebound() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = new NumberPad();
+            final Key       key       = numberPad.getKeys().get(SEVEN);
+            assertEquals(KeyCode.NUMPAD7, key.getMetaData());
+            numberPad.setLayer(LAYER);
+            assertEquals(KeyCode.F7, key.getMetaData());
+            assertEquals("F7", key.getKeyText());
+            numberPad.setLayer(null);
+            assertEquals(KeyCode.NUMPAD7, key.getMetaData());
+            assertEquals("7", key.getKeyText());
+            assertThrows(IllegalArgumentException.class, () -> numberPad.setLayer(KeyLayout.parse("1:NUMPAD1")));
+        });
+    }
+
+    @Test void listenersAreCalledOncePerChange() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = new NumberPad();
+            final int[]     calls     = new int[1];
+            final Runnable  listener  = () -> calls[0]++;
+            numberPad.setOnLayerChanged(listener);
+            numberPad.setLayer(LAYER);
+            numberPad.setLayer(LAYER);
+            assertEquals(1, calls[0]);
+            numberPad.removeOnLayerChanged(listener);
+            numberPad.setLayer(null);
+            assertEquals(1, calls[0]);
+        });
+    }
+
+    @Test void keyboardBridgeFollowsTheLayer() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad      numberPad = new NumberPad();
+            final KeyboardBridge bridge    = new KeyboardBridge(numberPad);
+            bridge.attach(new Scene(new StackPane(numberPad)));
+            numberPad.setLayer(LAYER);
+            assertSame(numberPad.getKeys().get(SEVEN), bridge.getKey(KeyCode.F7));
+            assertNull(bridge.getKey(KeyCode.NUMPAD7));
+            assertNull(bridge.getKey(KeyCode.DIGIT7));
+            bridge.detach();
+        });
+    }
+
+    @Test void injectionFollowsTheLayer() throws Exception {
+        final NumberPad numberPad = FxTest.call(NumberPad::new);
+        assertTrue(numberPad.injectKey(KeyCode.NUMPAD7));
+        FxTest.run(() -> numberPad.setLayer(LAYER));
+        assertFalse(numberPad.injectKey(KeyCode.NUMPAD7));
+        assertTrue(numberPad.injectKey(KeyCode.F7));
+        FxTest.waitForPulses(3);
+    }
+
+    @Test void entryMaskFollowsTheLayer() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = new NumberPad();
+            final Key       key       = numberPad.getKeys().get(SEVEN);
+            final EntryMask mask      = new EntryMask("#{3}");
+            mask.attach(numberPad);
+            assertFalse(key.isDisabled());
+            numberPad.setLayer(LAYER);
+            assertTrue(key.isDisabled());
+            numberPad.setLayer(null);
+            assertFalse(key.isDisabled());
+            mask.detach();
+            numberPad.setLayer(LAYER);
+            assertFalse(key.isDisabled());
+        });
+    }
+
+    @Test void sequencesDontContinueOnAnotherLayer() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad          numberPad = new NumberPad();
+            final KeySequenceMatcher matcher   = new KeySequenceMatcher();
+            final List<String>       matches   = new ArrayList<>();
+            matcher.register(() -> matches.add("12"), "12");
+            matcher.attach(numberPad);
+            press(numberPad, KeyCode.NUMPAD1);
+            numberPad.setLayer(LAYER);
+            press(numberPad, KeyCode.NUMPAD2);
+            assertTrue(matches.isEmpty());
+            press(numberPad, KeyCode.NUMPAD1);
+            press(numberPad, KeyCode.NUMPAD2);
+            assertEquals(List.of("12"), matches);
+        });
+    }
+
+    private static void press(final NumberPad numberPad, final KeyCode keyCode) {
+        final Key key = numberPad.getKeys().stream().filter(k -> keyCode == k.getMetaData()).findFirst().orElseThrow();
+        numberPad.pressKey(key, true);
+        numberPad.pressKey(key, false);
+    }
+}
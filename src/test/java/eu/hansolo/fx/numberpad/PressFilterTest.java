@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+
+import javafx.css.PseudoClass;
+import javafx.event.Event;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class PressFilterTest {
+    private static final PseudoClass    PRESSED  = PseudoClass.getPseudoClass("pressed");
+    private final        List<KeyEvent> received = new CopyOnWriteArrayList<>();
+
+
+    @BeforeAll static void startToolkit() { FxTest.start(); }
+
+    @Test void injectedKeysBypassTheMinimumPressDuration() throws Exception {
+        final NumberPad numberPad = FxTest.call(this::observedPad);
+        FxTest.run(() -> numberPad.enablePressFilter(0, 1_000, 0));
+        assertTrue(numberPad.injectKey(KeyCode.NUMPAD5));
+        FxTest.waitForPulses(5);
+        assertEquals(2, received.size());
+        assertEquals(KeyEventType.PRESSED, received.get(0).getType());
+        assertEquals(KeyEventType.RELEASED, received.get(1).getType());
+    }
+
+    @Test void hardwareKeysBypassTheMinimumPressDuration() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad numberPad = observedPad();
+            numberPad.enablePressFilter(0, 1_000, 0);
+            final Key key = key(numberPad, KeyCode.NUMPAD5);
+            assertTrue(numberPad.pressKey(key, true));
+            assertTrue(key.isLookPressed());
+            numberPad.pressKey(key, false);
+            assertEquals(2, received.size());
+        });
+    }
+
+    @Test void rejectedPressDoesNotLookPressed() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad   numberPad = observedPad();
+            final PressFilter filter    = numberPad.enablePressFilter(0, 1_000, 0);
+            final Key         key       = key(numberPad, KeyCode.NUMPAD5);
+            new Scene(new StackPane(numberPad));
+            mouse(key, true);
+            assertTrue(key.isPressed());
+            assertFalse(key.isLookPressed());
+            assertFalse(key.getPseudoClassStates().contains(PRESSED));
+            mouse(key, false);
+            assertTrue(received.isEmpty());
+            assertEquals(1, filter.getMinimumPressDurationRejections());
+        });
+    }
+
+    @Test void heldBackPressLooksPressedOnceDispatched() throws Exception {
+        final NumberPad numberPad = FxTest.call(this::observedPad);
+        final Key       key       = key(numberPad, KeyCode.NUMPAD5);
+        FxTest.run(() -> {
+            numberPad.enablePressFilter(0, 20, 0);
+            new Scene(new StackPane(numberPad));
+            mouse(key, true);
+            assertFalse(key.getPseudoClassStates().contains(PRESSED));
+        });
+        FxTest.waitForPulses(5);
+        FxTest.run(() -> {
+            assertEquals(1, received.size());
+            assertTrue(key.isLookPressed());
+            assertTrue(key.getPseudoClassStates().contains(PRESSED));
+            mouse(key, false);
+            assertEquals(KeyEventType.RELEASED, received.get(1).getType());
+            assertFalse(key.getPseudoClassStates().contains(PRESSED));
+        });
+    }
+
+    private NumberPad observedPad() {
+        final NumberPad        numberPad = new NumberPad();
+        final KeyEventObserver observer  = received::add;
+        numberPad.setOnKeyPressed(observer);
+        numberPad.setOnKeyReleased(observer);
+        return numberPad;
+    }
+
+    private static Key key(final NumberPad numberPad, final KeyCode keyCode) {
+        return numberPad.getKeys().stream().filter(key -> keyCode == key.getMetaData()).findFirst().orElseThrow();
+    }
+
+    private static void mouse(final Key key, final boolean pressed) {
+        Event.fireEvent(key, new MouseEvent(pressed ? MouseEvent.MOUSE_PRESSED : MouseEvent.MOUSE_RELEASED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
+                                            false, false, false, false, pressed, false, false, false, false, true, null));
+    }
+}
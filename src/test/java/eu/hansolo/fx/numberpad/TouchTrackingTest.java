@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.hansolo.fx.numberpad;
+
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.TouchEvent;
+import javafx.scene.input.TouchPoint;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * The touch events are passed to NumberPad.handleTouch() directly, the headless
+ * platform of the tests doesn't support multi-touch.
+ */
+class TouchTrackingTest {
+    private static final int FIRST  = 1;
+    private static final int SECOND = 2;
+
+
+    @Test void twoTouchPointsPressAndReleaseTwoKeysIndependently() throws Exception {
+        for (RenderMode renderMode : RenderMode.values()) {
+            FxTest.run(() -> {
+                final NumberPad    numberPad = pad(renderMode);
+                final List<String> events    = observe(numberPad);
+                final Point2D      one       = center(numberPad, KeyCode.NUMPAD1);
+                final Point2D      two       = center(numberPad, KeyCode.NUMPAD2);
+
+                touch(numberPad, TouchEvent.TOUCH_PRESSED, FIRST, one, point(SECOND, two));
+                touch(numberPad, TouchEvent.TOUCH_PRESSED, SECOND, two, point(FIRST, one));
+                assertEquals(List.of("NUMPAD1 PRESSED", "NUMPAD2 PRESSED"), events, renderMode.name());
+
+                // the second finger stays on its key while the first one is lifted
+                touch(numberPad, TouchEvent.TOUCH_RELEASED, FIRST, one, point(SECOND, two));
+                touch(numberPad, TouchEvent.TOUCH_STATIONARY, SECOND, two);
+                assertEquals(List.of("NUMPAD1 PRESSED", "NUMPAD2 PRESSED", "NUMPAD1 RELEASED"), events, renderMode.name());
+
+                touch(numberPad, TouchEvent.TOUCH_RELEASED, SECOND, two);
+                assertEquals(List.of("NUMPAD1 PRESSED", "NUMPAD2 PRESSED", "NUMPAD1 RELEASED", "NUMPAD2 RELEASED"), events, renderMode.name());
+            });
+        }
+    }
+
+    @Test void slidingAndLostTouchPoints() throws Exception {
+        FxTest.run(() -> {
+            final NumberPad    numberPad = pad(RenderMode.NODES);
+            final List<String> events    = observe(numberPad);
+            final Point2D      one       = center(numberPad, KeyCode.NUMPAD1);
+            final Point2D      two       = center(numberPad, KeyCode.NUMPAD2);
+            final Point2D      three     = center(numberPad, KeyCode.NUMPAD3);
+
+            touch(numberPad, TouchEvent.TOUCH_PRESSED, FIRST, one);
+            touch(numberPad, TouchEvent.TOUCH_MOVED, FIRST, two);
+            assertEquals(List.of("NUMPAD1 PRESSED", "NUMPAD1 RELEASED", "NUMPAD2 PRESSED"), events);
+
+            // the release of the first finger got lost, the next touch releases its key
+            events.clear();
+            touch(numberPad, TouchEvent.TOUCH_PRESSED, SECOND, three);
+            assertEquals(List.of("NUMPAD2 RELEASED", "NUMPAD3 PRESSED"), events);
+            touch(numberPad, TouchEvent.TOUCH_RELEASED, SECOND, three);
+        });
+    }
+
+    private static NumberPad pad(final RenderMode renderMode) {
+        final NumberPad numberPad = new NumberPad(KeyLayout.NUMBER_PAD, 5, 5, renderMode, true);
+        final StackPane root      = new StackPane(numberPad);
+        new Scene(root);
+        root.resize(400, 400);
+        root.layout();
+        return numberPad;
+    }
+
+    private static List<String> observe(final NumberPad numberPad) {
+        final List<String>     events   = new ArrayList<>();
+        final KeyEventObserver observer = evt -> events.add(evt.getKey().getMetaData() + " " + evt.getType());
+        numberPad.setOnKeyPressed(observer);
+        numberPad.setOnKeyReleased(observer);
+        return events;
+    }
+
+    // Center of the points of the pad that hit the given key
+    private static Point2D center(final NumberPad numberPad, final KeyCode keyCode) {
+        final int index = numberPad.getKeys().indexOf(numberPad.getKeys().stream().filter(key -> keyCode == key.getMetaData()).findFirst().orElseThrow());
+        double sumX = 0, sumY = 0;
+        int    hits = 0;
+        for (int y = 0 ; y < numberPad.getHeight() ; y += 2) {
+            for (int x = 0 ; x < numberPad.getWidth() ; x += 2) {
+                if (numberPad.keyIndexAt(x, y) == index) {
+                    sumX += x;
+                    sumY += y;
+                    hits++;
+                }
+            }
+        }
+        if (0 == hits) { throw new IllegalStateException(keyCode + " is not visible"); }
+        return new Point2D(sumX / hits, sumY / hits);
+    }
+
+    private static TouchPoint point(final int id, final Point2D position) {
+        return new TouchPoint(id, TouchPoint.State.STATIONARY, position.getX(), position.getY(), position.getX(), position.getY(), null, null);
+    }
+
+    // Passes the event to the pad, the touch point set of the event contains the given point and the other points
+    private static void touch(final NumberPad numberPad, final EventType<TouchEvent> type, final int id, final Point2D position,
+                              final TouchPoint... others) {
+        final TouchPoint.State state = TouchEvent.TOUCH_PRESSED == type ? TouchPoint.State.PRESSED :
+                                       TouchEvent.TOUCH_RELEASED == type ? TouchPoint.State.RELEASED :
+                                       TouchEvent.TOUCH_MOVED == type ? TouchPoint.State.MOVED : TouchPoint.State.STATIONARY;
+        final TouchPoint       point  = new TouchPoint(id, state, position.getX(), position.getY(), position.getX(), position.getY(), null, null);
+        final List<TouchPoint> points = new ArrayList<>(List.of(others));
+        points.add(0, point);
+        numberPad.handleTouch(new TouchEvent(type, point, points, 0, false, false, false, false));
+    }
+}